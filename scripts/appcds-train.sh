@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Unpacks the Boot jar into a plain jar plus lib/ (CDS can't archive classes from nested jars),
+# runs a training workload against it and dumps the loaded classes into an AppCDS archive.
+# Expects Postgres on the default datasource URL. Run with:
+#   java -XX:SharedArchiveFile=target/cds/users-api.jsa -jar target/cds/users-api.jar
+set -euo pipefail
+
+PORT=${PORT:-8080}
+JAR=${JAR:-target/users-api-0.0.1-SNAPSHOT.jar}
+TRAINING_SECONDS=${TRAINING_SECONDS:-30}
+CDS_DIR=${CDS_DIR:-target/cds}
+BASE_URL="http://localhost:${PORT}"
+source "$(dirname "$0")/workload.sh"
+
+rm -rf "${CDS_DIR}"
+mkdir -p "${CDS_DIR}/unpacked" "${CDS_DIR}/lib"
+unzip -q "${JAR}" -d "${CDS_DIR}/unpacked"
+cp "${CDS_DIR}"/unpacked/BOOT-INF/lib/*.jar "${CDS_DIR}/lib/"
+{
+  echo "Main-Class: com.example.users.api.UsersApiApplication"
+  echo -n "Class-Path:"
+  for lib in "${CDS_DIR}"/lib/*.jar; do
+    echo " lib/$(basename "${lib}")"
+  done
+} > "${CDS_DIR}/MANIFEST.MF"
+jar --create --file "${CDS_DIR}/users-api.jar" --manifest "${CDS_DIR}/MANIFEST.MF" \
+    -C "${CDS_DIR}/unpacked/BOOT-INF/classes" .
+rm -rf "${CDS_DIR}/unpacked" "${CDS_DIR}/MANIFEST.MF"
+
+java -XX:ArchiveClassesAtExit="${CDS_DIR}/users-api.jsa" -jar "${CDS_DIR}/users-api.jar" \
+    --server.port="${PORT}" > "${CDS_DIR}/training.log" 2>&1 &
+pid=$!
+run_workload "$(wait_for_token)" "${TRAINING_SECONDS}"
+# The archive is written when the JVM exits normally
+kill -TERM "${pid}"
+wait "${pid}" || true
+echo "AppCDS archive written to ${CDS_DIR}/users-api.jsa"
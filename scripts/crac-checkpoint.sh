@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Starts the app on a CRaC enabled JDK, warms it up and checkpoints it. Restore with:
+#   java -XX:CRaCRestoreFrom=target/crac
+# Expects Postgres on the default datasource URL and the plain jar from appcds-train.sh.
+set -euo pipefail
+
+PORT=${PORT:-8080}
+JAR=${JAR:-target/cds/users-api.jar}
+WARM_UP_SECONDS=${WARM_UP_SECONDS:-60}
+CHECKPOINT_DIR=${CHECKPOINT_DIR:-target/crac}
+BASE_URL="http://localhost:${PORT}"
+source "$(dirname "$0")/workload.sh"
+
+rm -rf "${CHECKPOINT_DIR}"
+java -XX:CRaCCheckpointTo="${CHECKPOINT_DIR}" -jar "${JAR}" --server.port="${PORT}" \
+    --crac.enabled=true > "target/crac-checkpoint.log" 2>&1 &
+pid=$!
+run_workload "$(wait_for_token)" "${WARM_UP_SECONDS}"
+jcmd "${pid}" JDK.checkpoint
+wait "${pid}" || true
+echo "Checkpoint written to ${CHECKPOINT_DIR}"
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Compares throughput and latency of successful requests with the common failure paths:
+# duplicate sign-ups (400) and brute-force sign-ins (403, then 429 once rate limited).
+# Needs hey (https://github.com/rakyll/hey), Postgres on the default datasource URL and the jar.
+set -euo pipefail
+
+PORT=${PORT:-8080}
+JAR=${JAR:-target/users-api-0.0.1-SNAPSHOT.jar}
+DURATION=${DURATION:-30s}
+CONCURRENCY=${CONCURRENCY:-16}
+BASE_URL="http://localhost:${PORT}"
+source "$(dirname "$0")/workload.sh"
+
+java -jar "${JAR}" --server.port="${PORT}" > /dev/null 2>&1 &
+pid=$!
+trap 'kill "${pid}"; wait "${pid}" 2> /dev/null || true' EXIT
+token=$(wait_for_token)
+user_id=$(benchmark_user_id "${token}")
+
+run() {
+  local name=$1
+  shift
+  # Warm-up, then the measured run
+  hey -z 10s -c "${CONCURRENCY}" "$@" > /dev/null
+  echo "== ${name}"
+  hey -z "${DURATION}" -c "${CONCURRENCY}" "$@" \
+      | grep -E 'Requests/sec|Average|99% in|\[[0-9]{3}\]'
+}
+
+run "success" -H "Authorization: Bearer ${token}" "${BASE_URL}/users/${user_id}"
+run "duplicate sign-up" -m POST -T application/json -d "${SIGN_UP}" "${BASE_URL}/auth/sign-up"
+run "invalid sign-in" -m POST -T application/json \
+    -d '{"username":"benchmark","password":"invalid"}' "${BASE_URL}/auth/sign-in"
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Reports time to the first successful sign-in and time to peak throughput for the plain JVM,
+# AppCDS and CRaC restored variants. Needs hey (https://github.com/rakyll/hey), Postgres on the
+# default datasource URL and the artifacts from appcds-train.sh and crac-checkpoint.sh.
+set -euo pipefail
+
+PORT=${PORT:-8080}
+JAR=${JAR:-target/cds/users-api.jar}
+CDS_ARCHIVE=${CDS_ARCHIVE:-target/cds/users-api.jsa}
+CHECKPOINT_DIR=${CHECKPOINT_DIR:-target/crac}
+WINDOWS=${WINDOWS:-60}
+BASE_URL="http://localhost:${PORT}"
+source "$(dirname "$0")/workload.sh"
+
+measure() {
+  local name=$1 start pid token user_id ready throughput peak=0 peak_at=0 elapsed
+  shift
+  start=$(now_ms)
+  "$@" > /dev/null 2>&1 &
+  pid=$!
+  token=$(wait_for_token)
+  ready=$(( $(now_ms) - start ))
+  user_id=$(benchmark_user_id "${token}")
+  # Throughput is sampled in one second windows; peak is the first window within 5% of the best
+  local samples=()
+  for _ in $(seq "${WINDOWS}"); do
+    elapsed=$(( $(now_ms) - start ))
+    throughput=$(hey -z 1s -c 8 -H "Authorization: Bearer ${token}" \
+        "${BASE_URL}/users/${user_id}" \
+        | awk '/Requests\/sec/ { printf "%d", $2 }')
+    samples+=("${elapsed}:${throughput}")
+    (( throughput > peak )) && peak=${throughput}
+  done
+  for sample in "${samples[@]}"; do
+    if (( ${sample#*:} * 100 >= peak * 95 )); then
+      peak_at=${sample%%:*}
+      break
+    fi
+  done
+  echo "${name}: first sign-in ${ready} ms, peak ${peak} req/s after ${peak_at} ms"
+  kill "${pid}"
+  wait "${pid}" 2> /dev/null || true
+}
+
+measure "jvm " java -jar "${JAR}" --server.port="${PORT}"
+measure "cds " java -XX:SharedArchiveFile="${CDS_ARCHIVE}" -jar "${JAR}" --server.port="${PORT}"
+measure "crac" java -XX:CRaCRestoreFrom="${CHECKPOINT_DIR}"
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Compares the JVM and native builds by time to the first successful sign-in and resident memory.
+# Expects Postgres on the default datasource URL and both artifacts built beforehand:
+#   ./mvnw -DskipTests package
+#   ./mvnw -DskipTests -Pnative native:compile
+set -euo pipefail
+
+PORT=${PORT:-8080}
+JAR=${JAR:-target/users-api-0.0.1-SNAPSHOT.jar}
+NATIVE=${NATIVE:-target/users-api}
+RUNS=${RUNS:-5}
+BASE_URL="http://localhost:${PORT}"
+source "$(dirname "$0")/workload.sh"
+
+measure() {
+  local start pid rss
+  start=$(now_ms)
+  "$@" --server.port="${PORT}" > /dev/null 2>&1 &
+  pid=$!
+  wait_for_token > /dev/null
+  echo -n "$(( $(now_ms) - start )) ms"
+  rss=$(awk '/VmRSS/ { print $2 }' "/proc/${pid}/status")
+  echo " $(( rss / 1024 )) MB"
+  kill "${pid}"
+  wait "${pid}" 2> /dev/null || true
+}
+
+for run in $(seq "${RUNS}"); do
+  echo -n "jvm    #${run}: "
+  measure java -jar "${JAR}"
+  echo -n "native #${run}: "
+  measure "${NATIVE}"
+done
@@ -0,0 +1,45 @@
+#!/usr/bin/env bash
+# Requests shared by the startup and training scripts. Expects BASE_URL to point at a running app.
+
+SIGN_UP='{"username":"benchmark","password":"password","email":"benchmark@mail.com",
+"firstName":"Bench","lastName":"Mark","birthDate":"1990-01-01","address":"Address",
+"phoneNumber":"+380123456789"}'
+SIGN_IN='{"username":"benchmark","password":"password"}'
+
+now_ms() {
+  date +%s%3N
+}
+
+# Blocks until the app is up and the benchmark user can sign in, then prints an access token.
+# Signing up fails harmlessly when the user already exists, e.g. after a CRaC restore.
+wait_for_token() {
+  local response
+  until curl -s -o /dev/null -H 'Content-Type: application/json' -d "${SIGN_UP}" \
+      "${BASE_URL}/auth/sign-up" 2> /dev/null \
+      && response=$(curl -sf -H 'Content-Type: application/json' -d "${SIGN_IN}" \
+      "${BASE_URL}/auth/sign-in"); do
+    sleep 0.01
+  done
+  sed -n 's/.*"token":"\([^"]*\)".*/\1/p' <<< "${response}"
+}
+
+# Prints the id of the benchmark user. Ids aren't sequential once they carry a shard bucket.
+benchmark_user_id() {
+  local token=$1
+  curl -s -H "Authorization: Bearer ${token}" "${BASE_URL}/users/search?q=benchmark&limit=1" \
+      | sed -n 's/.*"id":\([0-9]*\).*/\1/p'
+}
+
+# Exercises the common read paths for the given number of seconds.
+run_workload() {
+  local token=$1 seconds=$2 deadline user_id
+  user_id=$(benchmark_user_id "${token}")
+  deadline=$(( $(now_ms) + seconds * 1000 ))
+  while (( $(now_ms) < deadline )); do
+    curl -s -o /dev/null -H "Authorization: Bearer ${token}" "${BASE_URL}/users/${user_id}"
+    curl -s -o /dev/null -H "Authorization: Bearer ${token}" "${BASE_URL}/users/search?q=bench"
+    curl -s -o /dev/null -H "Authorization: Bearer ${token}" \
+        "${BASE_URL}/users/upcoming-birthdays?days=30"
+    curl -s -o /dev/null "${BASE_URL}/auth/username-available?username=benchmark"
+  done
+}
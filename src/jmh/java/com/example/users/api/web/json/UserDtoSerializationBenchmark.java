@@ -0,0 +1,105 @@
+package com.example.users.api.web.json;
+
+import com.example.users.api.web.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import lombok.Data;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writes a page of users the way the mapper used to (birth date formatted to a String on every
+ * call), with Jackson's bean serializer over the LocalDate field, and with {@link
+ * UserDtoSerializer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDtoSerializationBenchmark {
+  @Param("1000")
+  private int size;
+
+  private List<UserDto> users;
+  private ObjectMapper defaultMapper;
+  private ObjectMapper mapper;
+
+  @Setup
+  public void setUp() {
+    users = IntStream.range(0, size).mapToObj(UserDtoSerializationBenchmark::user).toList();
+    defaultMapper = new ObjectMapper().findAndRegisterModules();
+    mapper = new ObjectMapper().findAndRegisterModules()
+        .registerModule(new SimpleModule().addSerializer(new UserDtoSerializer()));
+  }
+
+  @Benchmark
+  public byte[] stringDate() throws Exception {
+    var legacy = users.stream().map(UserDtoSerializationBenchmark::legacy).toList();
+    return defaultMapper.writeValueAsBytes(legacy);
+  }
+
+  @Benchmark
+  public byte[] beanSerializer() throws Exception {
+    return defaultMapper.writeValueAsBytes(users);
+  }
+
+  @Benchmark
+  public byte[] preEncoded() throws Exception {
+    return mapper.writeValueAsBytes(users);
+  }
+
+  private static UserDto user(int i) {
+    var user = new UserDto();
+    user.setId((long) i);
+    user.setFirstName("First" + i);
+    user.setLastName("Last" + i);
+    user.setUsername("user" + i);
+    user.setEmail("user" + i + "@example.com");
+    user.setBirthDate(LocalDate.of(1950, 1, 1).plusDays(i * 17L));
+    user.setAddress(i + " Main Street");
+    user.setPhoneNumber("+1 555 " + (1000 + i));
+    return user;
+  }
+
+  // What the generated mapper did before: a new formatter for every user
+  private static LegacyUserDto legacy(UserDto user) {
+    var legacy = new LegacyUserDto();
+    legacy.setId(user.getId());
+    legacy.setFirstName(user.getFirstName());
+    legacy.setLastName(user.getLastName());
+    legacy.setUsername(user.getUsername());
+    legacy.setEmail(user.getEmail());
+    legacy.setBirthDate(DateTimeFormatter.ofPattern("dd-MM-yyyy").format(user.getBirthDate()));
+    legacy.setAddress(user.getAddress());
+    legacy.setPhoneNumber(user.getPhoneNumber());
+    return legacy;
+  }
+
+  @Data
+  public static class LegacyUserDto {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String username;
+    private String email;
+    private String birthDate;
+    private String address;
+    private String phoneNumber;
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.users.api.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "crac.enabled", havingValue = "true")
+public class CracConfig {
+
+  @Bean
+  public TomcatConnectorCustomizer unbindOnStopCustomizer() {
+    // Otherwise the server socket stays bound while the connector is stopped for a checkpoint
+    return connector -> connector.setProperty("bindOnInit", "false");
+  }
+
+  @Bean
+  public CracResources cracResources(ApplicationContext applicationContext) {
+    return new CracResources(applicationContext);
+  }
+}
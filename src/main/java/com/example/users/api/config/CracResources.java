@@ -0,0 +1,102 @@
+package com.example.users.api.config;
+
+import com.example.users.api.config.invalidation.InvalidationListener;
+import com.example.users.api.config.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Closes the sockets a CRaC checkpoint can't contain: the HTTP connectors stop accepting, the
+ * invalidation listener disconnects and the connection pools are suspended and drained, and all
+ * of them come back after restore. Spring Boot 3.1 has no CRaC lifecycle support of its own.
+ */
+@Slf4j
+public class CracResources implements Resource {
+  private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+  private final ApplicationContext applicationContext;
+
+  public CracResources(ApplicationContext applicationContext) {
+    this.applicationContext = applicationContext;
+    Core.getGlobalContext().register(this);
+  }
+
+  @Override
+  public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+    for (var connector : connectors()) {
+      connector.stop();
+    }
+    applicationContext.getBeansOfType(InvalidationListener.class).values()
+        .forEach(InvalidationListener::stop);
+    for (var dataSource : pools()) {
+      var pool = dataSource.getHikariPoolMXBean();
+      pool.suspendPool();
+      pool.softEvictConnections();
+      var deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+      while (pool.getTotalConnections() > 0) {
+        if (System.nanoTime() - deadline > 0) {
+          throw new IllegalStateException("Connections of " + dataSource.getPoolName()
+              + " are still in use");
+        }
+        Thread.sleep(10);
+        pool.softEvictConnections();
+      }
+    }
+    log.info("Ready for checkpoint");
+  }
+
+  @Override
+  public void afterRestore(Context<? extends Resource> context)
+      throws LifecycleException, SQLException {
+    for (var dataSource : pools()) {
+      dataSource.getHikariPoolMXBean().resumePool();
+    }
+    applicationContext.getBeansOfType(InvalidationListener.class).values()
+        .forEach(InvalidationListener::start);
+    for (var connector : connectors()) {
+      connector.start();
+    }
+    log.info("Restored from checkpoint");
+  }
+
+  private List<Connector> connectors() {
+    if (applicationContext instanceof WebServerApplicationContext webContext
+        && webContext.getWebServer() instanceof TomcatWebServer webServer) {
+      return List.of(webServer.getTomcat().getService().findConnectors());
+    }
+    return List.of();
+  }
+
+  private List<HikariDataSource> pools() throws SQLException {
+    var pools = Collections.newSetFromMap(new IdentityHashMap<HikariDataSource, Boolean>());
+    for (var dataSource : applicationContext.getBeansOfType(DataSource.class).values()) {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        pools.add(dataSource.unwrap(HikariDataSource.class));
+      }
+      if (dataSource instanceof ReplicaRoutingDataSource routing) {
+        pools.addAll(routing.replicaDataSources());
+      }
+      if (dataSource instanceof ShardRoutingDataSource routing) {
+        pools.addAll(routing.shardDataSources());
+      }
+    }
+    // Pools that were never used have no MXBean yet and nothing to close
+    return pools.stream()
+        .filter(dataSource -> dataSource.getHikariPoolMXBean() != null)
+        .toList();
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.users.api.config;
+
+import com.example.users.api.config.invalidation.InvalidationMessage;
+import com.example.users.api.domain.RefreshToken;
+import com.example.users.api.domain.SigningKey;
+import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserStatus;
+import com.example.users.api.repository.BirthDateCount;
+import com.example.users.api.repository.DeletedUser;
+import com.example.users.api.repository.RefreshTokenRepository;
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.repository.UserSearchKeys;
+import com.example.users.api.service.stats.BirthDateBucket;
+import com.example.users.api.web.dto.Credentials;
+import com.example.users.api.web.dto.ExceptionResponse;
+import com.example.users.api.web.dto.IntrospectionRequest;
+import com.example.users.api.web.dto.IntrospectionResult;
+import com.example.users.api.web.dto.JwtToken;
+import com.example.users.api.web.dto.RefreshTokenRequest;
+import com.example.users.api.web.dto.SignUpStatus;
+import com.example.users.api.web.dto.TokenIntrospection;
+import com.example.users.api.web.dto.UpcomingBirthdays;
+import com.example.users.api.web.dto.UserChangeDto;
+import com.example.users.api.web.dto.UserChanges;
+import com.example.users.api.web.dto.UserCreationDto;
+import com.example.users.api.web.dto.UserDto;
+import com.example.users.api.web.dto.UserSearchResult;
+import com.example.users.api.web.dto.UserUpdateDto;
+import com.example.users.api.web.dto.UsernameAvailability;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.stream.Stream;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Hints for the native image that Spring AOT can't infer: JSON bodies reached through generics
+ * or exception handlers, java-jwt's Jackson internals, MapStruct implementations, JDK proxies
+ * created by the SQL instrumentation and sharding and resources read by Hibernate.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+  private static final Class<?>[] JSON_TYPES = {
+      Credentials.class, ExceptionResponse.class, JwtToken.class, RefreshTokenRequest.class,
+      SignUpStatus.class, UpcomingBirthdays.class, UserCreationDto.class, UserDto.class,
+      UserSearchResult.class, UserUpdateDto.class, UsernameAvailability.class,
+      BirthDateBucket.class, UserChangeDto.class, UserChanges.class, InvalidationMessage.class,
+      IntrospectionRequest.class, IntrospectionResult.class, TokenIntrospection.class
+  };
+  private static final String[] JWT_TYPES = {
+      "com.auth0.jwt.impl.BasicHeader", "com.auth0.jwt.impl.ClaimsHolder",
+      "com.auth0.jwt.impl.ClaimsSerializer", "com.auth0.jwt.impl.HeaderClaimsHolder",
+      "com.auth0.jwt.impl.HeaderDeserializer", "com.auth0.jwt.impl.HeaderSerializer",
+      "com.auth0.jwt.impl.JsonNodeClaim", "com.auth0.jwt.impl.PayloadClaimsHolder",
+      "com.auth0.jwt.impl.PayloadDeserializer", "com.auth0.jwt.impl.PayloadImpl",
+      "com.auth0.jwt.impl.PayloadSerializer"
+  };
+  private static final String[] MAPPER_TYPES = {
+      "com.example.users.api.web.mapper.UserMapperImpl",
+      "com.example.users.api.web.mapper.JwtTokenMapperImpl"
+  };
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+    Stream.of(User.class, UserStatus.class, RefreshToken.class, SigningKey.class)
+        .forEach(type -> hints.reflection().registerType(type, MemberCategory.values()));
+    Stream.of(JWT_TYPES).map(TypeReference::of)
+        .forEach(type -> hints.reflection().registerType(type, MemberCategory.values()));
+    Stream.of(MAPPER_TYPES).map(TypeReference::of)
+        .forEach(type -> hints.reflection().registerType(type,
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+    Stream.of(Connection.class, Statement.class, PreparedStatement.class,
+            CallableStatement.class, ResultSet.class)
+        .forEach(type -> hints.proxies().registerJdkProxy(type));
+    Stream.of(UserRepository.class, RefreshTokenRepository.class)
+        .forEach(type -> hints.proxies().registerJdkProxy(type));
+    Stream.of(UserSearchKeys.class, BirthDateCount.class, DeletedUser.class)
+        .forEach(type -> hints.reflection().registerType(type,
+            MemberCategory.INVOKE_PUBLIC_METHODS));
+    hints.resources().registerPattern("import.sql");
+    hints.resources().registerPattern("logback-spring.xml");
+  }
+}
@@ -0,0 +1,65 @@
+package com.example.users.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(
+      HikariDataSource primaryDataSource,
+      DataSourceProperties properties,
+      @Value("${datasource.replicas.urls}") List<String> urls,
+      @Value("${datasource.replicas.username}") String username,
+      @Value("${datasource.replicas.password}") String password,
+      @Value("${datasource.replicas.pool-size}") int poolSize,
+      @Value("${datasource.replicas.max-lag}") Duration maxLag,
+      @Value("${datasource.replicas.sticky-window}") Duration stickyWindow,
+      @Value("${datasource.replicas.max-sticky-entries}") int maxStickyEntries,
+      @Value("${spring.datasource.hikari.allow-pool-suspension:false}") boolean allowSuspension,
+      MeterRegistry meterRegistry) {
+    var replicas = urls.stream()
+        .map(url -> {
+          var replica = new HikariDataSource();
+          replica.setDriverClassName(properties.getDriverClassName());
+          replica.setJdbcUrl(url);
+          replica.setUsername(username);
+          replica.setPassword(password);
+          replica.setMaximumPoolSize(poolSize);
+          replica.setReadOnly(true);
+          replica.setAllowPoolSuspension(allowSuspension);
+          return replica;
+        })
+        .toList();
+    var routing = new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, stickyWindow,
+        maxStickyEntries, meterRegistry);
+    routing.checkLag();
+    return routing;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    // Defers fetching a connection until the transaction's read-only flag is known
+    return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.users.api.config;
+
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica whose replay lag is within bounds and everything else
+ * to the primary. Users who have just written are kept on the primary for the sticky window so
+ * they read their own writes.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+  private static final String PRIMARY = "primary";
+  private static final String LAG_QUERY = """
+      select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+          else extract(epoch from now() - pg_last_xact_replay_timestamp()) end""";
+
+  private final List<Replica> replicas;
+  private final double maxLagSeconds;
+  private final long stickyWindow;
+  private final int maxStickyEntries;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+  private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+  public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaDataSources,
+                                  Duration maxLag, Duration stickyWindow, int maxStickyEntries,
+                                  MeterRegistry meterRegistry) {
+    this.replicas = replicaDataSources.stream().map(Replica::new).toList();
+    this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    this.stickyWindow = stickyWindow.toNanos();
+    this.maxStickyEntries = maxStickyEntries;
+    var targets = new HashMap<Object, Object>();
+    targets.put(PRIMARY, primary);
+    for (var i = 0; i < replicas.size(); i++) {
+      var replica = replicas.get(i);
+      targets.put(i, replica.dataSource);
+      Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds)
+          .tag("replica", String.valueOf(i))
+          .baseUnit("seconds")
+          .register(meterRegistry);
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isSticky()) {
+      return PRIMARY;
+    }
+    var start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    for (var i = 0; i < replicas.size(); i++) {
+      var index = (start + i) % replicas.size();
+      if (replicas.get(index).lagSeconds <= maxLagSeconds) {
+        return index;
+      }
+    }
+    return PRIMARY;
+  }
+
+  @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval}")
+  public void checkLag() {
+    for (var replica : replicas) {
+      try (var connection = replica.dataSource.getConnection();
+           var statement = connection.createStatement();
+           var resultSet = statement.executeQuery(LAG_QUERY)) {
+        resultSet.next();
+        replica.lagSeconds = resultSet.getDouble(1);
+      } catch (SQLException exception) {
+        log.warn("Replica {} is unavailable: {}", replica.dataSource.getJdbcUrl(),
+            exception.getMessage());
+        replica.lagSeconds = Double.POSITIVE_INFINITY;
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCreated(UserCreatedEvent event) {
+    stick(event.user().getUsername());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUpdated(UserUpdatedEvent event) {
+    stick(event.previousUsername());
+    stick(event.user().getUsername());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeleted(UserDeletedEvent event) {
+    stick(event.username());
+  }
+
+  List<HikariDataSource> replicaDataSources() {
+    return replicas.stream().map(replica -> replica.dataSource).toList();
+  }
+
+  @Override
+  public void close() {
+    replicas.forEach(replica -> replica.dataSource.close());
+  }
+
+  private boolean isSticky() {
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null) {
+      return false;
+    }
+    var until = stickyUntil.get(authentication.getName());
+    return until != null && until - System.nanoTime() > 0;
+  }
+
+  private void stick(String username) {
+    var now = System.nanoTime();
+    if (stickyUntil.size() >= maxStickyEntries) {
+      stickyUntil.values().removeIf(until -> until - now <= 0);
+    }
+    stickyUntil.put(username, now + stickyWindow);
+  }
+
+  private static class Replica {
+    private final HikariDataSource dataSource;
+    // Unknown until the first check, so no reads are routed to a replica that was never reached
+    private volatile double lagSeconds = Double.POSITIVE_INFINITY;
+
+    Replica(HikariDataSource dataSource) {
+      this.dataSource = dataSource;
+    }
+  }
+}
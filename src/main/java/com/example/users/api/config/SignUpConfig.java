@@ -0,0 +1,26 @@
+package com.example.users.api.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class SignUpConfig {
+
+  @Bean
+  public ThreadPoolTaskExecutor signUpExecutor(
+      @Value("${sign-up.async.pool-size}") int poolSize,
+      @Value("${sign-up.async.queue-capacity}") int queueCapacity) {
+    var executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("sign-up-");
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    // A saturated pool degrades to synchronous hashing instead of dropping reservations
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+}
@@ -0,0 +1,23 @@
+package com.example.users.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class TokenIntrospectionConfig {
+
+  @Bean
+  public ThreadPoolTaskExecutor introspectionExecutor(
+      @Value("${jwt.introspection.pool-size}") int poolSize,
+      @Value("${jwt.introspection.queue-capacity}") int queueCapacity) {
+    var executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("introspection-");
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    // Rejections throw, also after shutdown, and TokenIntrospector verifies those chunks inline
+    return executor;
+  }
+}
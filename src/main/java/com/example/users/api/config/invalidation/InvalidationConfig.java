@@ -0,0 +1,68 @@
+package com.example.users.api.config.invalidation;
+
+import com.example.users.api.config.sharding.ShardRoutingDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "cache-invalidation.enabled", havingValue = "true")
+public class InvalidationConfig {
+  // Identifies this node's own notifications, which come back to it like everyone else's
+  private final String origin = UUID.randomUUID().toString();
+
+  @Bean
+  public InvalidationPublisher invalidationPublisher(
+      DataSource dataSource,
+      ObjectMapper objectMapper,
+      @Value("${cache-invalidation.channel}") String channel) {
+    // The data source transactions are bound to, so notifications go out on their connection
+    return new InvalidationPublisher(dataSource, objectMapper, channel, origin);
+  }
+
+  @Bean
+  public InvalidationListener invalidationListener(
+      DataSource dataSource,
+      ObjectProvider<HikariDataSource> primaryDataSource,
+      ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+      ObjectMapper objectMapper,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${cache-invalidation.channel}") String channel,
+      @Value("${cache-invalidation.batch-window}") Duration batchWindow,
+      @Value("${cache-invalidation.poll-timeout}") Duration pollTimeout,
+      @Value("${cache-invalidation.reconnect-delay}") Duration reconnectDelay)
+      throws SQLException {
+    if (pollTimeout.toMillis() <= 0) {
+      throw new IllegalArgumentException("cache-invalidation.poll-timeout must be positive");
+    }
+    return new InvalidationListener(
+        channelDataSources(dataSource, primaryDataSource, shardRoutingDataSource), channel,
+        origin, batchWindow, pollTimeout, reconnectDelay, objectMapper, eventPublisher);
+  }
+
+  private static List<HikariDataSource> channelDataSources(
+      DataSource dataSource,
+      ObjectProvider<HikariDataSource> primaryDataSource,
+      ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource) throws SQLException {
+    // Notifications don't cross databases and are sent on the writing shard, so every shard is
+    // listened to
+    var routing = shardRoutingDataSource.getIfAvailable();
+    if (routing != null) {
+      return routing.shardDataSources();
+    }
+    // Replica routing declares the primary pool as a bean, otherwise it is behind the
+    // instrumented dataSource
+    var primary = primaryDataSource.getIfUnique();
+    return List.of(primary != null ? primary : dataSource.unwrap(HikariDataSource.class));
+  }
+}
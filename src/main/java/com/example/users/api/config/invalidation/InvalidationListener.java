@@ -0,0 +1,158 @@
+package com.example.users.api.config.invalidation;
+
+import com.example.users.api.service.event.ClusterFlushEvent;
+import com.example.users.api.service.event.ClusterInvalidation;
+import com.example.users.api.service.event.ClusterInvalidationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Listens for the invalidations of other nodes on a dedicated connection per database, outside
+ * the pools, and applies them in batches: notifications arriving within the batch window are
+ * deduplicated and published as one {@link ClusterInvalidationEvent}. Whatever was sent while a
+ * connection was down is lost, so every connection after the first one to a database, including
+ * those after {@link #stop()} and {@link #start()}, publishes a {@link ClusterFlushEvent} instead.
+ */
+@Slf4j
+public class InvalidationListener implements SmartLifecycle {
+  private final List<HikariDataSource> dataSources;
+  private final String channel;
+  private final String origin;
+  private final Duration batchWindow;
+  private final Duration pollTimeout;
+  private final Duration reconnectDelay;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  // Outlives the listener threads, so restarts flush like reconnects
+  private final Set<HikariDataSource> connected = ConcurrentHashMap.newKeySet();
+  private volatile List<Thread> threads = List.of();
+
+  public InvalidationListener(List<HikariDataSource> dataSources, String channel, String origin,
+                              Duration batchWindow, Duration pollTimeout, Duration reconnectDelay,
+                              ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+    this.dataSources = List.copyOf(dataSources);
+    this.channel = channel;
+    this.origin = origin;
+    this.batchWindow = batchWindow;
+    this.pollTimeout = pollTimeout;
+    this.reconnectDelay = reconnectDelay;
+    this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public synchronized void start() {
+    if (threads.isEmpty()) {
+      threads = IntStream.range(0, dataSources.size())
+          .mapToObj(i -> new Thread(() -> run(dataSources.get(i)), "invalidation-listener-" + i))
+          .toList();
+      threads.forEach(thread -> {
+        thread.setDaemon(true);
+        thread.start();
+      });
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    var current = threads;
+    threads = List.of();
+    current.forEach(Thread::interrupt);
+    try {
+      for (var thread : current) {
+        thread.join(pollTimeout.multipliedBy(2).toMillis());
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return !threads.isEmpty();
+  }
+
+  private boolean isCurrent() {
+    return threads.contains(Thread.currentThread());
+  }
+
+  private void run(HikariDataSource dataSource) {
+    while (isCurrent()) {
+      try (var connection = DriverManager.getConnection(dataSource.getJdbcUrl(),
+          dataSource.getUsername(), dataSource.getPassword())) {
+        try (var statement = connection.createStatement()) {
+          // The channel comes from configuration, LISTEN takes no bind parameters
+          statement.execute("listen " + channel);
+        }
+        if (!connected.add(dataSource)) {
+          log.info("Reconnected to the invalidation channel, flushing local caches");
+          eventPublisher.publishEvent(new ClusterFlushEvent());
+        }
+        listen(connection);
+      } catch (SQLException exception) {
+        if (!isCurrent()) {
+          return;
+        }
+        log.warn("Invalidation channel failed, reconnecting in {}", reconnectDelay, exception);
+        try {
+          Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+      } catch (InterruptedException exception) {
+        return;
+      }
+    }
+  }
+
+  private void listen(Connection connection) throws SQLException, InterruptedException {
+    var pgConnection = connection.unwrap(PGConnection.class);
+    var timeout = (int) pollTimeout.toMillis();
+    while (isCurrent()) {
+      var notifications = pgConnection.getNotifications(timeout);
+      if (notifications == null || notifications.length == 0) {
+        continue;
+      }
+      var batch = new LinkedHashSet<ClusterInvalidation>();
+      collect(notifications, batch);
+      Thread.sleep(batchWindow.toMillis());
+      // Without a timeout it doesn't block, it only drains what has already arrived
+      collect(pgConnection.getNotifications(), batch);
+      if (!batch.isEmpty()) {
+        eventPublisher.publishEvent(new ClusterInvalidationEvent(List.copyOf(batch)));
+      }
+    }
+  }
+
+  private void collect(PGNotification[] notifications, Set<ClusterInvalidation> batch) {
+    if (notifications == null) {
+      return;
+    }
+    for (var notification : notifications) {
+      try {
+        var message = objectMapper.readValue(notification.getParameter(),
+            InvalidationMessage.class);
+        if (!origin.equals(message.origin())) {
+          batch.add(message.invalidation());
+        }
+      } catch (IOException exception) {
+        log.warn("Ignoring malformed invalidation {}", notification.getParameter(), exception);
+      }
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package com.example.users.api.config.invalidation;
+
+import com.example.users.api.service.event.ClusterInvalidation;
+
+/**
+ * NOTIFY payload. The origin lets a node skip its own notifications, whose caches were already
+ * updated by the local event.
+ */
+public record InvalidationMessage(String origin, ClusterInvalidation invalidation) {
+}
@@ -0,0 +1,67 @@
+package com.example.users.api.config.invalidation;
+
+import com.example.users.api.security.TokenDeniedEvent;
+import com.example.users.api.service.event.ClusterInvalidation;
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import javax.sql.DataSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Tells the other nodes about changes to cached state with {@code pg_notify}. User changes are
+ * sent just before commit on the writing transaction's connection. Postgres delivers them only
+ * once that transaction commits, and a notification that can't be sent rolls the change back, so
+ * no committed change goes unannounced.
+ */
+public class InvalidationPublisher {
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final String channel;
+  private final String origin;
+
+  public InvalidationPublisher(DataSource dataSource, ObjectMapper objectMapper, String channel,
+                               String origin) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.objectMapper = objectMapper;
+    this.channel = channel;
+    this.origin = origin;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onCreated(UserCreatedEvent event) {
+    publish(ClusterInvalidation.of(event));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onUpdated(UserUpdatedEvent event) {
+    publish(ClusterInvalidation.of(event));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onDeleted(UserDeletedEvent event) {
+    publish(ClusterInvalidation.of(event));
+  }
+
+  @EventListener
+  public void onTokenDenied(TokenDeniedEvent event) {
+    publish(ClusterInvalidation.tokenDenied(event.tokenId(), event.expiresAt()));
+  }
+
+  void publish(ClusterInvalidation invalidation) {
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(new InvalidationMessage(origin, invalidation));
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException("Failed to write " + invalidation.type() + " invalidation",
+          exception);
+    }
+    // Joins the transaction's connection when there is one, failures propagate to the caller
+    jdbcTemplate.queryForList("select pg_notify(?, ?)", channel, payload);
+  }
+}
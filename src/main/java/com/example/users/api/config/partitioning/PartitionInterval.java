@@ -0,0 +1,32 @@
+package com.example.users.api.config.partitioning;
+
+/**
+ * Width of the birth date range covered by one partition of the users table.
+ */
+public enum PartitionInterval {
+  YEAR(1, "y"),
+  DECADE(10, "d");
+
+  private final int years;
+  private final String prefix;
+
+  PartitionInterval(int years, String prefix) {
+    this.years = years;
+    this.prefix = prefix;
+  }
+
+  public int years() {
+    return years;
+  }
+
+  /**
+   * First year of the partition holding the given year.
+   */
+  public int startOf(int year) {
+    return Math.floorDiv(year, years) * years;
+  }
+
+  public String partitionName(int startYear) {
+    return "users_" + prefix + startYear;
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.users.api.config.partitioning;
+
+import com.example.users.api.config.sharding.ShardRoutingDataSource;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "user-partitioning.enabled", havingValue = "true")
+public class PartitioningConfig {
+
+  @Bean
+  public UserPartitioning userPartitioning(
+      DataSource dataSource,
+      ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+      @Value("${user-partitioning.interval}") PartitionInterval interval,
+      @Value("${user-partitioning.start-year}") int startYear) {
+    // Every shard has its own users table
+    List<DataSource> dataSources = shardRoutingDataSource.stream()
+        .<DataSource>flatMap(routing -> routing.shardDataSources().stream())
+        .toList();
+    return new UserPartitioning(dataSources.isEmpty() ? List.of(dataSource) : dataSources,
+        interval, startYear);
+  }
+}
@@ -0,0 +1,167 @@
+package com.example.users.api.config.partitioning;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Turns the users table into one range partitioned by birth date, so birth date range queries
+ * only scan the partitions they overlap, and keeps partitions created ahead of time.
+ *
+ * <p>A partitioned table can't have a unique index without the partition key, so username
+ * uniqueness moves to the {@code user_usernames} table kept in sync by a trigger. Dates outside
+ * the managed range land in a default partition and are moved out when a partition for them is
+ * created.
+ */
+@Slf4j
+public class UserPartitioning {
+  private static final String DEFAULT_PARTITION = "users_default";
+  // Serializes migrations and maintenance of the nodes sharing a database
+  private static final long LOCK_ID = 0x75736572L;
+  private static final String CLAIM_USERNAME = """
+      create or replace function users_claim_username() returns trigger language plpgsql as $$
+      begin
+        if tg_op in ('UPDATE', 'DELETE') and old.username is not null then
+          delete from user_usernames where username = old.username;
+        end if;
+        if tg_op in ('UPDATE', 'INSERT') and new.username is not null then
+          insert into user_usernames (username) values (new.username);
+        end if;
+        return null;
+      end $$""";
+
+  private final List<Database> databases;
+  private final PartitionInterval interval;
+  private final int startYear;
+
+  public UserPartitioning(List<DataSource> dataSources, PartitionInterval interval,
+                          int startYear) {
+    this.databases = dataSources.stream()
+        .map(dataSource -> new Database(new JdbcTemplate(dataSource),
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource))))
+        .toList();
+    this.interval = interval;
+    this.startYear = interval.startOf(startYear);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void migrate() {
+    for (var database : databases) {
+      database.transaction().executeWithoutResult(status -> migrate(database.jdbcTemplate()));
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${user-partitioning.maintenance-interval}",
+      initialDelayString = "${user-partitioning.maintenance-interval}")
+  public void maintain() {
+    for (var database : databases) {
+      database.transaction().executeWithoutResult(status -> {
+        var jdbcTemplate = database.jdbcTemplate();
+        lock(jdbcTemplate);
+        if ("p".equals(relationKind(jdbcTemplate))) {
+          createPartitions(jdbcTemplate, nonGeneratedColumns(jdbcTemplate));
+        }
+      });
+    }
+  }
+
+  private void migrate(JdbcTemplate jdbcTemplate) {
+    lock(jdbcTemplate);
+    var kind = relationKind(jdbcTemplate);
+    if (!"r".equals(kind)) {
+      return;
+    }
+    var columns = nonGeneratedColumns(jdbcTemplate);
+    var indexes = jdbcTemplate.queryForList("""
+        select pg_get_indexdef(indexrelid) from pg_index
+        where indrelid = 'users'::regclass and not indisunique""", String.class);
+    var triggers = jdbcTemplate.queryForList("""
+        select pg_get_triggerdef(oid) from pg_trigger
+        where tgrelid = 'users'::regclass and not tgisinternal""", String.class);
+    log.info("Partitioning users by birth date {}", interval);
+
+    jdbcTemplate.execute("alter table users rename to users_unpartitioned");
+    jdbcTemplate.execute("""
+        create table users (
+            like users_unpartitioned including defaults including generated including constraints)
+        partition by range (birth_date)""");
+    jdbcTemplate.execute("create table " + DEFAULT_PARTITION + " partition of users default");
+    createPartitions(jdbcTemplate, columns);
+    jdbcTemplate.execute("insert into users (%s) select %1$s from users_unpartitioned"
+        .formatted(columns));
+    jdbcTemplate.execute("drop table users_unpartitioned");
+    jdbcTemplate.execute("alter table users add primary key (id, birth_date)");
+    indexes.forEach(jdbcTemplate::execute);
+
+    jdbcTemplate.execute("create table if not exists user_usernames (username text primary key)");
+    jdbcTemplate.execute("truncate user_usernames");
+    jdbcTemplate.execute("""
+        insert into user_usernames (username)
+        select username from users where username is not null""");
+    // Recreated after the copy, which must keep the rows' change stamps
+    triggers.forEach(jdbcTemplate::execute);
+    jdbcTemplate.execute(CLAIM_USERNAME);
+    jdbcTemplate.execute("""
+        create trigger users_claim_username after insert or delete or update of username
+        on users for each row execute function users_claim_username()""");
+  }
+
+  private void createPartitions(JdbcTemplate jdbcTemplate, String columns) {
+    var existing = new HashSet<>(jdbcTemplate.queryForList("""
+        select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = 'users'::regclass""", String.class));
+    var lastYear = interval.startOf(LocalDate.now().getYear() + 1);
+    for (var year = startYear; year <= lastYear; year += interval.years()) {
+      var name = interval.partitionName(year);
+      if (existing.contains(name)) {
+        continue;
+      }
+      var from = LocalDate.of(year, 1, 1);
+      var to = from.plusYears(interval.years());
+      // Rows of the new range sitting in the default partition would make creating it fail
+      jdbcTemplate.execute("create temporary table moved_users (like users)");
+      jdbcTemplate.update("""
+          with moved as (
+              delete from %s where birth_date >= ? and birth_date < ? returning %s)
+          insert into moved_users (%2$s) select %2$s from moved"""
+          .formatted(DEFAULT_PARTITION, columns), from, to);
+      jdbcTemplate.execute("create table %s partition of users for values from ('%s') to ('%s')"
+          .formatted(name, from, to));
+      jdbcTemplate.execute("insert into users (%s) select %1$s from moved_users"
+          .formatted(columns));
+      jdbcTemplate.execute("drop table moved_users");
+      log.info("Created partition {} for birth dates from {} to {}", name, from, to);
+    }
+  }
+
+  private static void lock(JdbcTemplate jdbcTemplate) {
+    jdbcTemplate.queryForList("select pg_advisory_xact_lock(?)", LOCK_ID);
+  }
+
+  private static String relationKind(JdbcTemplate jdbcTemplate) {
+    return jdbcTemplate.queryForObject(
+        "select (select relkind::text from pg_class where oid = to_regclass('users'))",
+        String.class);
+  }
+
+  private static String nonGeneratedColumns(JdbcTemplate jdbcTemplate) {
+    return String.join(", ", jdbcTemplate.queryForList("""
+        select column_name from information_schema.columns
+        where table_schema = current_schema() and table_name = 'users' and is_generated = 'NEVER'
+        order by ordinal_position""", String.class));
+  }
+
+  private record Database(JdbcTemplate jdbcTemplate, TransactionTemplate transaction) {
+  }
+}
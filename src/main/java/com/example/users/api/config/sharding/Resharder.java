@@ -0,0 +1,225 @@
+package com.example.users.api.config.sharding;
+
+import static com.example.users.api.domain.UserIdGenerator.BUCKETS;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Moves buckets whose owner in the {@link ShardMap} differs from the ring, e.g. after a shard
+ * was appended to {@code sharding.urls}, while the application keeps serving traffic. For each
+ * batch of buckets the rows are copied, writes to the batch are fenced, the rows are copied again
+ * to catch up, ownership is flipped, the fence is lifted and the old copies are deleted. Each
+ * step waits for every node to pick up the bucket map before the next one.
+ */
+@Slf4j
+public class Resharder {
+  private static final List<String> USER_COLUMNS = List.of("id", "first_name", "last_name",
+      "username", "email", "password", "birth_date", "address", "phone_number", "status",
+      "deleted_at", "created_at", "updated_at");
+  private static final String IN_BUCKET = "(id & " + (BUCKETS - 1) + ") = ?";
+  private static final String SELECT_USERS =
+      "select " + String.join(", ", USER_COLUMNS) + " from users where " + IN_BUCKET;
+  private static final String INSERT_USER = "insert into users (%s) values (%s)".formatted(
+      String.join(", ", USER_COLUMNS),
+      USER_COLUMNS.stream().map(column -> "?").collect(Collectors.joining(", ")));
+  private static final String TOKENS_IN_BUCKET =
+      "u.username = t.username and (u.id & " + (BUCKETS - 1) + ") = ?";
+  private static final int COPY_BATCH_SIZE = 500;
+
+  private final List<JdbcTemplate> shards;
+  private final ShardMap shardMap;
+  private final ShardRing ring;
+  private final Duration propagationDelay;
+  private final int batchBuckets;
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final AtomicInteger remaining = new AtomicInteger();
+
+  public Resharder(List<JdbcTemplate> shards, ShardMap shardMap, ShardRing ring,
+                   Duration propagationDelay, int batchBuckets) {
+    this.shards = shards;
+    this.shardMap = shardMap;
+    this.ring = ring;
+    this.propagationDelay = propagationDelay;
+    this.batchBuckets = batchBuckets;
+  }
+
+  public Map<String, Object> status() {
+    return Map.of("running", running.get(), "remainingBuckets", remaining.get());
+  }
+
+  /**
+   * Rebalances on a background thread, unless a rebalance is already running.
+   */
+  public boolean start() {
+    if (!running.compareAndSet(false, true)) {
+      return false;
+    }
+    var thread = new Thread(() -> {
+      try {
+        doRebalance();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      } catch (RuntimeException exception) {
+        log.error("Resharding failed, run it again to resume", exception);
+      } finally {
+        running.set(false);
+      }
+    }, "resharding");
+    thread.setDaemon(true);
+    thread.start();
+    return true;
+  }
+
+  /**
+   * Returns the number of buckets moved.
+   */
+  public int rebalance() throws InterruptedException {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("Resharding is already running");
+    }
+    try {
+      return doRebalance();
+    } finally {
+      running.set(false);
+    }
+  }
+
+  private int doRebalance() throws InterruptedException {
+    var moves = new ArrayList<Move>();
+    var interrupted = new ArrayList<Integer>();
+    for (var bucket = 0; bucket < BUCKETS; bucket++) {
+      var owner = shardMap.shardOf(bucket);
+      if (owner != ring.ownerOf(bucket)) {
+        moves.add(new Move(bucket, owner, ring.ownerOf(bucket)));
+      } else if (shardMap.isMoving(bucket)) {
+        interrupted.add(bucket);
+      }
+    }
+    // Left behind by a run that failed after flipping ownership
+    if (!interrupted.isEmpty()) {
+      shardMap.setMoving(interrupted, false);
+      interrupted.forEach(bucket -> deleteCopies(bucket, shardMap.shardOf(bucket)));
+    }
+    remaining.set(moves.size());
+    log.info("Moving {} buckets", moves.size());
+    for (var from = 0; from < moves.size(); from += batchBuckets) {
+      var batch = moves.subList(from, Math.min(moves.size(), from + batchBuckets));
+      move(batch);
+      remaining.addAndGet(-batch.size());
+    }
+    return moves.size();
+  }
+
+  private void move(List<Move> moves) throws InterruptedException {
+    var buckets = moves.stream().map(Move::bucket).toList();
+    moves.forEach(this::copyUsers);
+    shardMap.setMoving(buckets, true);
+    awaitPropagation();
+    for (var move : moves) {
+      copyUsers(move);
+      copyRefreshTokens(move);
+      deleteStaleUsers(move);
+      alignSequence(move);
+    }
+    moves.stream()
+        .collect(Collectors.groupingBy(Move::to, Collectors.mapping(Move::bucket,
+            Collectors.toList())))
+        .forEach((to, assigned) -> shardMap.assign(assigned, to));
+    awaitPropagation();
+    shardMap.setMoving(buckets, false);
+    moves.forEach(move -> deleteCopies(move.bucket(), move.to()));
+    log.info("Moved buckets {}", buckets);
+  }
+
+  private void copyUsers(Move move) {
+    var target = shards.get(move.to());
+    var rows = new ArrayList<Object[]>(COPY_BATCH_SIZE);
+    shards.get(move.from()).query(SELECT_USERS, (RowCallbackHandler) resultSet -> {
+      rows.add(row(resultSet));
+      if (rows.size() == COPY_BATCH_SIZE) {
+        replaceUsers(target, rows);
+        rows.clear();
+      }
+    }, move.bucket());
+    if (!rows.isEmpty()) {
+      replaceUsers(target, rows);
+    }
+  }
+
+  private static void replaceUsers(JdbcTemplate target, List<Object[]> rows) {
+    // Not an upsert, as a partitioned users table has no unique index on the id alone
+    target.update("delete from users where id = any(?)",
+        (Object) rows.stream().map(row -> row[0]).toArray(Long[]::new));
+    target.batchUpdate(INSERT_USER, rows);
+  }
+
+  private void copyRefreshTokens(Move move) {
+    var target = shards.get(move.to());
+    target.update("delete from refresh_tokens t using users u where " + TOKENS_IN_BUCKET,
+        move.bucket());
+    var tokens = shards.get(move.from()).query(
+        "select t.token_hash, t.username, t.expires_at from refresh_tokens t, users u where "
+            + TOKENS_IN_BUCKET,
+        (resultSet, rowNum) -> new Object[] {
+            resultSet.getString(1), resultSet.getString(2), resultSet.getObject(3)},
+        move.bucket());
+    target.batchUpdate("""
+        insert into refresh_tokens (token_hash, username, expires_at) values (?, ?, ?)
+        on conflict (token_hash) do nothing""", tokens);
+  }
+
+  private void deleteStaleUsers(Move move) {
+    var selectIds = "select id from users where " + IN_BUCKET;
+    var stale = new HashSet<>(shards.get(move.to()).queryForList(selectIds, Long.class,
+        move.bucket()));
+    stale.removeAll(shards.get(move.from()).queryForList(selectIds, Long.class, move.bucket()));
+    shards.get(move.to()).batchUpdate("delete from users where id = ?",
+        stale.stream().map(id -> new Object[] {id}).toList());
+  }
+
+  private void alignSequence(Move move) {
+    // Ids combine the sequence with the bucket, so the bucket's new shard must not reuse values
+    var last = shards.get(move.from())
+        .queryForObject("select last_value from users_id_seq", Long.class);
+    shards.get(move.to()).queryForObject(
+        "select setval('users_id_seq', greatest(last_value, ?)) from users_id_seq", Long.class,
+        last);
+  }
+
+  private void deleteCopies(int bucket, int owner) {
+    for (var shard = 0; shard < shards.size(); shard++) {
+      if (shard != owner) {
+        shards.get(shard).update(
+            "delete from refresh_tokens t using users u where " + TOKENS_IN_BUCKET, bucket);
+        shards.get(shard).update("delete from users where " + IN_BUCKET, bucket);
+      }
+    }
+  }
+
+  private void awaitPropagation() throws InterruptedException {
+    Thread.sleep(propagationDelay.toMillis());
+  }
+
+  private static Object[] row(ResultSet resultSet) throws SQLException {
+    var row = new Object[USER_COLUMNS.size()];
+    for (var i = 0; i < row.length; i++) {
+      row[i] = resultSet.getObject(i + 1);
+    }
+    return row;
+  }
+
+  private record Move(int bucket, int from, int to) {
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.users.api.config.sharding;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+@Endpoint(id = "resharding")
+public class ReshardingEndpoint {
+  private final Resharder resharder;
+
+  public ReshardingEndpoint(Resharder resharder) {
+    this.resharder = resharder;
+  }
+
+  @ReadOperation
+  public Map<String, Object> status() {
+    return resharder.status();
+  }
+
+  @WriteOperation
+  public Map<String, Object> rebalance() {
+    resharder.start();
+    return resharder.status();
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.users.api.config.sharding;
+
+/**
+ * Shard the current thread's next connection is taken from. Unset means the first shard, which
+ * also holds the bucket map.
+ */
+public final class ShardContext {
+  private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+  private ShardContext() {
+  }
+
+  public static Integer current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Returns the previous shard, to be passed to {@link #restore(Integer)}.
+   */
+  public static Integer set(int shard) {
+    var previous = CURRENT.get();
+    CURRENT.set(shard);
+    return previous;
+  }
+
+  public static void restore(Integer previous) {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+}
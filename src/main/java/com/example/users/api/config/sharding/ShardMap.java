@@ -0,0 +1,88 @@
+package com.example.users.api.config.sharding;
+
+import static com.example.users.api.domain.UserIdGenerator.BUCKETS;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Current owner of every bucket, kept in a table on the first shard so all nodes agree while
+ * buckets are being moved. Seeded from the ring and refreshed periodically. Writes to a bucket
+ * that is being moved are rejected until it has been handed over.
+ */
+@Slf4j
+public class ShardMap {
+  private static final String CREATE_TABLE = """
+      create table if not exists shard_buckets (
+          bucket int primary key, shard int not null, moving boolean not null default false)""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ShardRing ring;
+  private volatile State state;
+
+  public ShardMap(JdbcTemplate jdbcTemplate, ShardRing ring) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.ring = ring;
+    var owners = new int[BUCKETS];
+    for (var bucket = 0; bucket < BUCKETS; bucket++) {
+      owners[bucket] = ring.ownerOf(bucket);
+    }
+    this.state = new State(owners, new boolean[BUCKETS]);
+  }
+
+  public int shardOf(int bucket) {
+    return state.owners()[bucket];
+  }
+
+  public boolean isMoving(int bucket) {
+    return state.moving()[bucket];
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void initialize() {
+    jdbcTemplate.execute(CREATE_TABLE);
+    var seed = new ArrayList<Object[]>(BUCKETS);
+    for (var bucket = 0; bucket < BUCKETS; bucket++) {
+      seed.add(new Object[] {bucket, ring.ownerOf(bucket)});
+    }
+    jdbcTemplate.batchUpdate(
+        "insert into shard_buckets (bucket, shard) values (?, ?) on conflict do nothing", seed);
+    refresh();
+  }
+
+  @Scheduled(fixedDelayString = "${sharding.bucket-map.refresh-interval}",
+      initialDelayString = "${sharding.bucket-map.refresh-interval}")
+  public void refresh() {
+    var owners = new int[BUCKETS];
+    var moving = new boolean[BUCKETS];
+    jdbcTemplate.query("select bucket, shard, moving from shard_buckets", resultSet -> {
+      var bucket = resultSet.getInt(1);
+      owners[bucket] = resultSet.getInt(2);
+      moving[bucket] = resultSet.getBoolean(3);
+    });
+    state = new State(owners, moving);
+  }
+
+  void setMoving(Collection<Integer> buckets, boolean moving) {
+    jdbcTemplate.batchUpdate("update shard_buckets set moving = ? where bucket = ?",
+        buckets.stream().map(bucket -> new Object[] {moving, bucket}).toList());
+    refresh();
+  }
+
+  void assign(Collection<Integer> buckets, int shard) {
+    jdbcTemplate.batchUpdate("update shard_buckets set shard = ? where bucket = ?",
+        buckets.stream().map(bucket -> new Object[] {shard, bucket}).toList());
+    refresh();
+  }
+
+  private record State(int[] owners, boolean[] moving) {
+  }
+}
@@ -0,0 +1,40 @@
+package com.example.users.api.config.sharding;
+
+import com.example.users.api.domain.User;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Order of a repository method's results, so the per-shard results can be merged instead of
+ * concatenated. A {@code limit} parameter also caps the merged results.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ShardMerge {
+  Order value();
+
+  enum Order {
+    ID(Comparator.comparing(User::getId)),
+    BIRTH_DATE(Comparator.comparing(User::getBirthDate).thenComparing(User::getId)),
+    BIRTH_MONTH_DAY(Comparator.comparing(User::getBirthMonthDay).thenComparing(User::getId)),
+    USERNAME(Comparator.comparing(username -> username.toLowerCase(Locale.ROOT)), String.class);
+
+    private final Comparator<Object> comparator;
+
+    <T> Order(Comparator<T> comparator, Class<T> type) {
+      this.comparator = Comparator.comparing(type::cast, comparator);
+    }
+
+    Order(Comparator<User> comparator) {
+      this(comparator, User.class);
+    }
+
+    Comparator<Object> comparator() {
+      return comparator;
+    }
+  }
+}
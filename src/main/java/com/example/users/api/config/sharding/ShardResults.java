@@ -0,0 +1,132 @@
+package com.example.users.api.config.sharding;
+
+import com.example.users.api.domain.RefreshToken;
+import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserIdGenerator;
+import com.example.users.api.repository.DeletedUser;
+import com.example.users.api.repository.UserSearchKeys;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Combines the results of a repository method run on every shard.
+ */
+final class ShardResults {
+  private static final String LIMIT_PARAMETER = "limit";
+
+  private ShardResults() {
+  }
+
+  static Object combine(Method method, Object[] args, List<Object> results) {
+    var type = method.getReturnType();
+    if (type == void.class) {
+      return null;
+    }
+    if (type == int.class || type == Integer.class) {
+      return results.stream().mapToInt(result -> (Integer) result).sum();
+    }
+    if (type == long.class || type == Long.class) {
+      return results.stream().mapToLong(result -> (Long) result).sum();
+    }
+    if (type == boolean.class || type == Boolean.class) {
+      return results.stream().anyMatch(Boolean.TRUE::equals);
+    }
+    if (type == Optional.class) {
+      return results.stream()
+          .map(result -> (Optional<?>) result)
+          .filter(Optional::isPresent)
+          .findFirst()
+          .orElse(Optional.empty());
+    }
+    var lists = results.stream().map(result -> (List<?>) result).toList();
+    if (type == Stream.class) {
+      return lists.stream().flatMap(Collection::stream);
+    }
+    if (type.isAssignableFrom(List.class)) {
+      var merge = method.getAnnotation(ShardMerge.class);
+      if (merge == null) {
+        return lists.stream().flatMap(Collection::stream).toList();
+      }
+      return merge(lists, merge.value().comparator(), limit(method, args));
+    }
+    throw new UnsupportedOperationException(method + " can't be run across shards");
+  }
+
+  /**
+   * Drops rows a shard holds for buckets it doesn't own, i.e. copies made while a bucket is being
+   * moved. Aggregates can't be told apart and are kept.
+   */
+  static Object retainOwned(Object result, IntPredicate ownsBucket) {
+    if (result instanceof List<?> list) {
+      return list.stream().filter(value -> isOwned(value, ownsBucket)).toList();
+    }
+    if (result instanceof Optional<?> optional) {
+      return optional.filter(value -> isOwned(value, ownsBucket));
+    }
+    return result;
+  }
+
+  /**
+   * K-way merge of sorted lists, pulling from the list with the smallest head until the limit is
+   * reached.
+   */
+  static <T> List<T> merge(List<? extends List<? extends T>> sorted,
+                           Comparator<? super T> comparator, int limit) {
+    var heads = new PriorityQueue<Head<T>>(Math.max(1, sorted.size()),
+        (left, right) -> comparator.compare(left.value(), right.value()));
+    for (var list : sorted) {
+      Iterator<? extends T> iterator = list.iterator();
+      if (iterator.hasNext()) {
+        heads.add(new Head<>(iterator.next(), iterator));
+      }
+    }
+    var merged = new ArrayList<T>();
+    while (!heads.isEmpty() && merged.size() < limit) {
+      var head = heads.poll();
+      merged.add(head.value());
+      if (head.rest().hasNext()) {
+        heads.add(new Head<>(head.rest().next(), head.rest()));
+      }
+    }
+    return merged;
+  }
+
+  private static boolean isOwned(Object value, IntPredicate ownsBucket) {
+    Integer bucket = null;
+    if (value instanceof User user) {
+      bucket = UserIdGenerator.bucketOf(user.getId());
+    } else if (value instanceof String username) {
+      bucket = UserIdGenerator.bucketOf(username);
+    } else if (value instanceof UserSearchKeys keys) {
+      bucket = UserIdGenerator.bucketOf(keys.getUsername());
+    } else if (value instanceof DeletedUser deleted) {
+      bucket = UserIdGenerator.bucketOf(deleted.getUsername());
+    } else if (value instanceof RefreshToken refreshToken) {
+      bucket = UserIdGenerator.bucketOf(refreshToken.getUsername());
+    }
+    return bucket == null || ownsBucket.test(bucket);
+  }
+
+  private static int limit(Method method, Object[] args) {
+    var parameters = method.getParameters();
+    for (var i = 0; i < parameters.length; i++) {
+      var param = parameters[i].getAnnotation(Param.class);
+      if (param != null && LIMIT_PARAMETER.equals(param.value())) {
+        return ((Number) args[i]).intValue();
+      }
+    }
+    return Integer.MAX_VALUE;
+  }
+
+  private record Head<T>(T value, Iterator<? extends T> rest) {
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.users.api.config.sharding;
+
+import static com.example.users.api.domain.UserIdGenerator.BUCKETS;
+
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring assigning buckets to shards. Each shard owns many points on the ring, so
+ * appending a shard takes an even share of buckets from every other shard and moves nothing else.
+ */
+public class ShardRing {
+  private final int shards;
+  private final int[] owners = new int[BUCKETS];
+
+  public ShardRing(int shards, int virtualNodes) {
+    if (shards < 1) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+    this.shards = shards;
+    var ring = new TreeMap<Integer, Integer>();
+    for (var shard = 0; shard < shards; shard++) {
+      for (var node = 0; node < virtualNodes; node++) {
+        ring.putIfAbsent(mix(("shard-" + shard + "#" + node).hashCode()), shard);
+      }
+    }
+    for (var bucket = 0; bucket < BUCKETS; bucket++) {
+      var point = ring.ceilingEntry(mix(bucket * 0x9e3779b9));
+      owners[bucket] = (point != null ? point : ring.firstEntry()).getValue();
+    }
+  }
+
+  public int shards() {
+    return shards;
+  }
+
+  public int ownerOf(int bucket) {
+    return owners[bucket];
+  }
+
+  private static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+}
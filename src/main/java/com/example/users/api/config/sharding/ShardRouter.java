@@ -0,0 +1,215 @@
+package com.example.users.api.config.sharding;
+
+import com.example.users.api.domain.RefreshToken;
+import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserIdGenerator;
+import jakarta.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import org.springframework.core.ResolvableType;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs repository calls on the right shard. Calls with a {@link ShardKey}, saves and user id
+ * lookups go to the shard owning the user's bucket. Everything else runs on every shard in
+ * parallel, each in a transaction of its own, and the results are combined.
+ *
+ * <p>A transaction is pinned to the shard of its first routed call, so mixing shards in one
+ * transaction fails instead of silently reading the wrong shard.
+ */
+public class ShardRouter {
+  private static final Set<String> ID_METHODS =
+      Set.of("findById", "existsById", "deleteById", "getById", "getReferenceById", "getOne");
+  private static final Set<String> ENTITY_METHODS = Set.of("save", "saveAndFlush", "delete");
+  private static final Set<String> BATCH_METHODS = Set.of("saveAll", "saveAllAndFlush",
+      "findAllById", "deleteAllById", "deleteAllByIdInBatch", "deleteAllInBatch");
+
+  private final ShardMap shardMap;
+  private final int shards;
+  private final Executor executor;
+  private final EntityManagerFactory entityManagerFactory;
+  private final TransactionTemplate readTransaction;
+  private final TransactionTemplate writeTransaction;
+  private final Map<Object, Integer> transactionShards = new ConcurrentHashMap<>();
+
+  public ShardRouter(ShardMap shardMap, int shards, Executor executor,
+                     PlatformTransactionManager transactionManager,
+                     EntityManagerFactory entityManagerFactory) {
+    this.shardMap = shardMap;
+    this.shards = shards;
+    this.executor = executor;
+    this.entityManagerFactory = entityManagerFactory;
+    // Never joins the caller's transaction, which may be pinned to another shard
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.readTransaction = new TransactionTemplate(transactionManager, writeTransaction);
+    readTransaction.setReadOnly(true);
+  }
+
+  Object invoke(Class<?> repositoryInterface, Object target, Method method, Object[] args)
+      throws Throwable {
+    var bucket = bucketOf(repositoryInterface, method, args);
+    if (bucket == null) {
+      return scatter(target, method, args);
+    }
+    if (isWrite(method) && shardMap.isMoving(bucket)) {
+      throw new CannotAcquireLockException(
+          "Users are being moved to another shard, try again later");
+    }
+    var shard = shardMap.shardOf(bucket);
+    pinTransaction(shard);
+    var previous = ShardContext.set(shard);
+    try {
+      return invokeTarget(target, method, args);
+    } finally {
+      ShardContext.restore(previous);
+    }
+  }
+
+  private Integer bucketOf(Class<?> repositoryInterface, Method method, Object[] args) {
+    var parameters = method.getParameters();
+    for (var i = 0; i < parameters.length; i++) {
+      if (parameters[i].isAnnotationPresent(ShardKey.class)) {
+        return args[i] instanceof Number id
+            ? UserIdGenerator.bucketOf(id.longValue())
+            : UserIdGenerator.bucketOf((String) args[i]);
+      }
+    }
+    var name = method.getName();
+    if (BATCH_METHODS.contains(name)) {
+      throw new UnsupportedOperationException(name + " is not supported while users are sharded");
+    }
+    if (ID_METHODS.contains(name)) {
+      if (domainType(repositoryInterface) != User.class) {
+        throw new UnsupportedOperationException(
+            name + " needs ids that are unique across shards");
+      }
+      return UserIdGenerator.bucketOf((Long) args[0]);
+    }
+    if (ENTITY_METHODS.contains(name)) {
+      return bucketOfEntity(args[0]);
+    }
+    return null;
+  }
+
+  private static int bucketOfEntity(Object entity) {
+    if (entity instanceof User user) {
+      var bucket = UserIdGenerator.bucketOf(user.getUsername());
+      if (user.getId() != null && UserIdGenerator.bucketOf(user.getId()) != bucket) {
+        throw new IllegalArgumentException(
+            "Changing the username to %s is not supported while users are sharded"
+                .formatted(user.getUsername()));
+      }
+      return bucket;
+    }
+    if (entity instanceof RefreshToken refreshToken) {
+      return UserIdGenerator.bucketOf(refreshToken.getUsername());
+    }
+    throw new UnsupportedOperationException(entity.getClass() + " is not sharded");
+  }
+
+  private static Class<?> domainType(Class<?> repositoryInterface) {
+    return ResolvableType.forClass(repositoryInterface).as(Repository.class).resolveGeneric(0);
+  }
+
+  private static boolean isWrite(Method method) {
+    var name = method.getName();
+    return method.isAnnotationPresent(Modifying.class) || name.startsWith("save")
+        || name.startsWith("delete") || name.startsWith("softDelete");
+  }
+
+  private void pinTransaction(int shard) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    var transaction = TransactionSynchronizationManager.getResource(entityManagerFactory);
+    if (transaction == null) {
+      return;
+    }
+    var pinned = transactionShards.putIfAbsent(transaction, shard);
+    if (pinned == null) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          transactionShards.remove(transaction);
+        }
+      });
+    } else if (pinned != shard) {
+      throw new IllegalStateException(
+          "Transaction on shard %d can't access shard %d".formatted(pinned, shard));
+    }
+  }
+
+  private Object scatter(Object target, Method method, Object[] args) throws Throwable {
+    var transaction = isWrite(method) ? writeTransaction : readTransaction;
+    var futures = new ArrayList<CompletableFuture<Object>>(shards);
+    for (var shard = 0; shard < shards; shard++) {
+      var current = shard;
+      futures.add(CompletableFuture.supplyAsync(
+          () -> onShard(current, transaction, target, method, args), executor));
+    }
+    var results = new ArrayList<>(shards);
+    try {
+      for (var future : futures) {
+        results.add(future.join());
+      }
+    } catch (CompletionException exception) {
+      throw exception.getCause();
+    }
+    return ShardResults.combine(method, args, results);
+  }
+
+  private Object onShard(int shard, TransactionTemplate transaction, Object target,
+                                Method method, Object[] args) {
+    var previous = ShardContext.set(shard);
+    try {
+      return transaction.execute(status -> {
+        var result = invokeUnchecked(target, method, args);
+        // Streams must be drained before their transaction ends
+        if (result instanceof Stream<?> stream) {
+          try (stream) {
+            result = stream.toList();
+          }
+        }
+        return ShardResults.retainOwned(result, bucket -> shardMap.shardOf(bucket) == shard);
+      });
+    } finally {
+      ShardContext.restore(previous);
+    }
+  }
+
+  private static Object invokeTarget(Object target, Method method, Object[] args)
+      throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException exception) {
+      throw exception.getCause();
+    }
+  }
+
+  private static Object invokeUnchecked(Object target, Method method, Object[] args) {
+    try {
+      return invokeTarget(target, method, args);
+    } catch (RuntimeException | Error exception) {
+      throw exception;
+    } catch (Throwable exception) {
+      throw new UndeclaredThrowableException(exception);
+    }
+  }
+}
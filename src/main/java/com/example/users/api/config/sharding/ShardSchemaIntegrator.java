@@ -0,0 +1,40 @@
+package com.example.users.api.config.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+/**
+ * Applies the configured schema action, e.g. {@code ddl-auto=create}, to every shard but the
+ * first, which Hibernate handles itself.
+ */
+class ShardSchemaIntegrator implements Integrator {
+  private final int shards;
+
+  ShardSchemaIntegrator(int shards) {
+    this.shards = shards;
+  }
+
+  @Override
+  public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                        SessionFactoryImplementor sessionFactory) {
+    for (var shard = 1; shard < shards; shard++) {
+      var previous = ShardContext.set(shard);
+      try {
+        SchemaManagementToolCoordinator.process(metadata, bootstrapContext.getServiceRegistry(),
+            sessionFactory.getProperties(), action -> {
+            });
+      } finally {
+        ShardContext.restore(previous);
+      }
+    }
+  }
+
+  @Override
+  public void disintegrate(SessionFactoryImplementor sessionFactory,
+                           SessionFactoryServiceRegistry serviceRegistry) {
+  }
+}
@@ -0,0 +1,31 @@
+package com.example.users.api.config.sharding;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import org.springframework.beans.factory.ObjectProvider;
+
+class ShardedRepository implements InvocationHandler {
+  private final Class<?> repositoryInterface;
+  private final Object target;
+  private final ObjectProvider<ShardRouter> router;
+
+  ShardedRepository(Class<?> repositoryInterface, Object target,
+                    ObjectProvider<ShardRouter> router) {
+    this.repositoryInterface = repositoryInterface;
+    this.target = target;
+    this.router = router;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return switch (method.getName()) {
+        case "equals" -> proxy == args[0];
+        case "hashCode" -> System.identityHashCode(proxy);
+        default -> "Sharded " + target;
+      };
+    }
+    return router.getObject().invoke(repositoryInterface, target, method,
+        args != null ? args : new Object[0]);
+  }
+}
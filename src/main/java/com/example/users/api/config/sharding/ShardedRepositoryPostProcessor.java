@@ -0,0 +1,39 @@
+package com.example.users.api.config.sharding;
+
+import com.example.users.api.repository.RefreshTokenRepository;
+import com.example.users.api.repository.UserRepository;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * Puts a {@link ShardRouter} in front of the repositories of user data. Refresh tokens live on
+ * their user's shard so a user's writes stay in one transaction.
+ */
+public class ShardedRepositoryPostProcessor implements BeanPostProcessor {
+  private static final List<Class<?>> SHARDED_REPOSITORIES =
+      List.of(UserRepository.class, RefreshTokenRepository.class);
+
+  private final ObjectProvider<ShardRouter> router;
+
+  public ShardedRepositoryPostProcessor(ObjectProvider<ShardRouter> router) {
+    this.router = router;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (Proxy.isProxyClass(bean.getClass())
+        && Proxy.getInvocationHandler(bean) instanceof ShardedRepository) {
+      return bean;
+    }
+    for (var repositoryInterface : SHARDED_REPOSITORIES) {
+      if (repositoryInterface.isInstance(bean)) {
+        return Proxy.newProxyInstance(repositoryInterface.getClassLoader(),
+            new Class<?>[] {repositoryInterface},
+            new ShardedRepository(repositoryInterface, bean, router));
+      }
+    }
+    return bean;
+  }
+}
@@ -0,0 +1,121 @@
+package com.example.users.api.config.sharding;
+
+import com.example.users.api.domain.UserIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+  @Bean
+  public ShardRing shardRing(@Value("${sharding.urls}") List<String> urls,
+                             @Value("${sharding.virtual-nodes}") int virtualNodes) {
+    return new ShardRing(urls.size(), virtualNodes);
+  }
+
+  @Bean
+  public ShardRoutingDataSource shardRoutingDataSource(
+      DataSourceProperties properties,
+      @Value("${sharding.urls}") List<String> urls,
+      @Value("${sharding.username}") String username,
+      @Value("${sharding.password}") String password,
+      @Value("${sharding.pool-size}") int poolSize,
+      @Value("${spring.datasource.hikari.allow-pool-suspension:false}") boolean allowSuspension) {
+    var shards = urls.stream()
+        .map(url -> {
+          var shard = new HikariDataSource();
+          shard.setDriverClassName(properties.getDriverClassName());
+          shard.setJdbcUrl(url);
+          shard.setUsername(username);
+          shard.setPassword(password);
+          shard.setMaximumPoolSize(poolSize);
+          shard.setAllowPoolSuspension(allowSuspension);
+          return shard;
+        })
+        .toList();
+    return new ShardRoutingDataSource(shards);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+    // Defers fetching a connection until a repository call has picked the shard
+    return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+  }
+
+  @Bean
+  public ShardMap shardMap(ShardRoutingDataSource shardRoutingDataSource, ShardRing shardRing) {
+    return new ShardMap(new JdbcTemplate(shardRoutingDataSource.shardDataSources().get(0)),
+        shardRing);
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor shardExecutor(
+      @Value("${sharding.scatter-pool-size}") int poolSize) {
+    var executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("shard-");
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    return executor;
+  }
+
+  @Bean
+  public ShardRouter shardRouter(ShardMap shardMap, ShardRing shardRing,
+                                 @Qualifier("shardExecutor") TaskExecutor shardExecutor,
+                                 PlatformTransactionManager transactionManager,
+                                 EntityManagerFactory entityManagerFactory) {
+    return new ShardRouter(shardMap, shardRing.shards(), shardExecutor, transactionManager,
+        entityManagerFactory);
+  }
+
+  @Bean
+  public static ShardedRepositoryPostProcessor shardedRepositoryPostProcessor(
+      ObjectProvider<ShardRouter> shardRouter) {
+    return new ShardedRepositoryPostProcessor(shardRouter);
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer shardSchemaCustomizer(ShardRing shardRing) {
+    return properties -> {
+      properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+          (IntegratorProvider) () -> List.of(new ShardSchemaIntegrator(shardRing.shards())));
+      properties.put(UserIdGenerator.BUCKETED_IDS, true);
+    };
+  }
+
+  @Bean
+  public Resharder resharder(
+      ShardRoutingDataSource shardRoutingDataSource, ShardMap shardMap, ShardRing shardRing,
+      @Value("${sharding.resharding.propagation-delay}") Duration propagationDelay,
+      @Value("${sharding.resharding.batch-buckets}") int batchBuckets) {
+    var shards = shardRoutingDataSource.shardDataSources().stream()
+        .map(JdbcTemplate::new)
+        .toList();
+    return new Resharder(shards, shardMap, shardRing, propagationDelay, batchBuckets);
+  }
+
+  @Bean
+  public ReshardingEndpoint reshardingEndpoint(Resharder resharder) {
+    return new ReshardingEndpoint(resharder);
+  }
+}
@@ -0,0 +1,195 @@
+package com.example.users.api.config.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Wraps connections so every statement execution is timed and reported to {@link
+ * SqlInstrumentation}. Rows read by a query are counted as its result set is iterated.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+  private final SqlInstrumentation sqlInstrumentation;
+
+  public InstrumentedDataSource(DataSource targetDataSource,
+                                SqlInstrumentation sqlInstrumentation) {
+    super(targetDataSource);
+    this.sqlInstrumentation = sqlInstrumentation;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    var connection = obtainTargetDataSource().getConnection();
+    return wrap(Connection.class, new ConnectionHandler(connection));
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    var connection = obtainTargetDataSource().getConnection(username, password);
+    return wrap(Connection.class, new ConnectionHandler(connection));
+  }
+
+  private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+        new Class<?>[] {type}, handler));
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException exception) {
+      throw exception.getCause();
+    }
+  }
+
+  private static long rowsOf(Object result) {
+    if (result instanceof Integer count) {
+      return Math.max(count, 0);
+    }
+    if (result instanceof Long count) {
+      return Math.max(count, 0);
+    }
+    if (result instanceof int[] counts) {
+      var rows = 0L;
+      for (var count : counts) {
+        rows += Math.max(count, 0);
+      }
+      return rows;
+    }
+    if (result instanceof long[] counts) {
+      var rows = 0L;
+      for (var count : counts) {
+        rows += Math.max(count, 0);
+      }
+      return rows;
+    }
+    return -1;
+  }
+
+  // Compares and hashes proxies by identity, the target would compare them against itself
+  private abstract static class ProxyHandler implements InvocationHandler {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      return switch (method.getName()) {
+        case "equals" -> proxy == args[0];
+        case "hashCode" -> System.identityHashCode(proxy);
+        default -> handle(proxy, method, args);
+      };
+    }
+
+    abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+  }
+
+  private class ConnectionHandler extends ProxyHandler {
+    private final Connection target;
+
+    ConnectionHandler(Connection target) {
+      this.target = target;
+    }
+
+    @Override
+    Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+      var result = InstrumentedDataSource.invoke(target, method, args);
+      var connection = (Connection) proxy;
+      return switch (method.getName()) {
+        case "createStatement" ->
+            wrap(Statement.class, new StatementHandler((Statement) result, connection, null));
+        case "prepareStatement" -> wrap(PreparedStatement.class,
+            new StatementHandler((Statement) result, connection, (String) args[0]));
+        case "prepareCall" -> wrap(CallableStatement.class,
+            new StatementHandler((Statement) result, connection, (String) args[0]));
+        default -> result;
+      };
+    }
+  }
+
+  private class StatementHandler extends ProxyHandler {
+    private final Statement target;
+    private final Connection connection;
+    private final String sql;
+
+    StatementHandler(Statement target, Connection connection, String sql) {
+      this.target = target;
+      this.connection = connection;
+      this.sql = sql;
+    }
+
+    @Override
+    Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+      var name = method.getName();
+      if (name.equals("getConnection")) {
+        return connection;
+      }
+      if (name.startsWith("execute")) {
+        var statementSql = args != null && args.length > 0 && args[0] instanceof String text
+            ? text : sql;
+        var start = System.nanoTime();
+        var success = false;
+        Object result = null;
+        try {
+          result = InstrumentedDataSource.invoke(target, method, args);
+          success = true;
+        } finally {
+          sqlInstrumentation.record(statementSql, System.nanoTime() - start, success,
+              rowsOf(result));
+        }
+        return result instanceof ResultSet resultSet
+            ? wrap(ResultSet.class, new ResultSetHandler(resultSet, (Statement) proxy,
+                statementSql))
+            : result;
+      }
+      var result = InstrumentedDataSource.invoke(target, method, args);
+      if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+        return wrap(ResultSet.class, new ResultSetHandler(resultSet, (Statement) proxy, sql));
+      }
+      return result;
+    }
+  }
+
+  private class ResultSetHandler extends ProxyHandler {
+    private final ResultSet target;
+    private final Statement statement;
+    private final String sql;
+    private long rows;
+    private boolean closed;
+
+    ResultSetHandler(ResultSet target, Statement statement, String sql) {
+      this.target = target;
+      this.statement = statement;
+      this.sql = sql;
+    }
+
+    @Override
+    Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+      if (method.getName().equals("getStatement")) {
+        return statement;
+      }
+      var result = InstrumentedDataSource.invoke(target, method, args);
+      switch (method.getName()) {
+        case "next" -> {
+          if (Boolean.TRUE.equals(result)) {
+            rows++;
+          }
+        }
+        case "close" -> {
+          if (!closed) {
+            closed = true;
+            sqlInstrumentation.recordRows(sql, rows);
+          }
+        }
+        default -> {
+        }
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.users.api.config.sql;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+@Component
+public class InstrumentedDataSourcePostProcessor implements BeanPostProcessor {
+  // Only the data source handed to JPA, so routed replica pools are not counted twice
+  private static final String DATA_SOURCE_BEAN = "dataSource";
+
+  private final ObjectProvider<SqlInstrumentation> sqlInstrumentation;
+  private final boolean enabled;
+
+  public InstrumentedDataSourcePostProcessor(
+      ObjectProvider<SqlInstrumentation> sqlInstrumentation,
+      @Value("${sql.instrumentation.enabled}") boolean enabled) {
+    this.sqlInstrumentation = sqlInstrumentation;
+    this.enabled = enabled;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (enabled && DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+        && !(bean instanceof InstrumentedDataSource)) {
+      return new InstrumentedDataSource(dataSource, sqlInstrumentation.getObject());
+    }
+    return bean;
+  }
+}
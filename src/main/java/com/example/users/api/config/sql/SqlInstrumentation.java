@@ -0,0 +1,134 @@
+package com.example.users.api.config.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records every JDBC statement as metrics instead of logging it. Only statements above the slow
+ * query threshold and a configurable sample of the rest are logged, through the asynchronous
+ * "sql" loggers configured in logback-spring.xml.
+ */
+@Component
+public class SqlInstrumentation {
+  private static final Logger SLOW_QUERY_LOG = LoggerFactory.getLogger("sql.slow");
+  private static final Logger STATEMENT_LOG = LoggerFactory.getLogger("sql.statements");
+  private static final Logger N_PLUS_ONE_LOG = LoggerFactory.getLogger("sql.n-plus-one");
+
+  private final Timer[] successTimers = new Timer[StatementType.values().length];
+  private final Timer[] errorTimers = new Timer[StatementType.values().length];
+  private final DistributionSummary[] rowSummaries =
+      new DistributionSummary[StatementType.values().length];
+  private final Counter slowQueries;
+  private final Counter nplusOneSuspects;
+  private final long slowQueryThreshold;
+  private final double sampleRate;
+  private final int nplusOneThreshold;
+  private final ThreadLocal<Map<String, Integer>> scope = new ThreadLocal<>();
+
+  public SqlInstrumentation(MeterRegistry meterRegistry,
+                            @Value("${sql.instrumentation.slow-query-threshold}")
+                            Duration slowQueryThreshold,
+                            @Value("${sql.instrumentation.sample-rate}") double sampleRate,
+                            @Value("${sql.instrumentation.n-plus-one-threshold}")
+                            int nplusOneThreshold) {
+    for (var type : StatementType.values()) {
+      var tag = type.name().toLowerCase(Locale.ROOT);
+      successTimers[type.ordinal()] = Timer.builder("sql.statement")
+          .tag("type", tag)
+          .tag("outcome", "success")
+          .publishPercentileHistogram()
+          .register(meterRegistry);
+      errorTimers[type.ordinal()] = Timer.builder("sql.statement")
+          .tag("type", tag)
+          .tag("outcome", "error")
+          .register(meterRegistry);
+      rowSummaries[type.ordinal()] = DistributionSummary.builder("sql.statement.rows")
+          .tag("type", tag)
+          .publishPercentileHistogram()
+          .register(meterRegistry);
+    }
+    this.slowQueries = Counter.builder("sql.statement.slow").register(meterRegistry);
+    this.nplusOneSuspects = Counter.builder("sql.n-plus-one.suspects").register(meterRegistry);
+    this.slowQueryThreshold = slowQueryThreshold.toNanos();
+    this.sampleRate = sampleRate;
+    this.nplusOneThreshold = nplusOneThreshold;
+  }
+
+  public void beginScope() {
+    scope.set(new HashMap<>());
+  }
+
+  public void endScope(String name) {
+    var executions = scope.get();
+    scope.remove();
+    if (executions == null) {
+      return;
+    }
+    executions.forEach((sql, count) -> {
+      if (count >= nplusOneThreshold) {
+        nplusOneSuspects.increment();
+        N_PLUS_ONE_LOG.warn("{} executed {} times during {}", sql, count, name);
+      }
+    });
+  }
+
+  void record(String sql, long elapsedNanos, boolean success, long rows) {
+    var type = StatementType.of(sql);
+    (success ? successTimers : errorTimers)[type.ordinal()]
+        .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    if (rows >= 0) {
+      recordRows(type, rows);
+    }
+    if (elapsedNanos >= slowQueryThreshold) {
+      slowQueries.increment();
+      SLOW_QUERY_LOG.warn("{} ms: {}", elapsedNanos / 1_000_000, sql);
+    } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+      STATEMENT_LOG.info("{} ms: {}", elapsedNanos / 1_000_000, sql);
+    }
+    var executions = scope.get();
+    if (executions != null && type == StatementType.SELECT && sql != null) {
+      executions.merge(sql, 1, Integer::sum);
+    }
+  }
+
+  void recordRows(String sql, long rows) {
+    recordRows(StatementType.of(sql), rows);
+  }
+
+  private void recordRows(StatementType type, long rows) {
+    rowSummaries[type.ordinal()].record(rows);
+  }
+
+  enum StatementType {
+    SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+    static StatementType of(String sql) {
+      if (sql == null) {
+        return OTHER;
+      }
+      var start = 0;
+      while (start < sql.length() && (Character.isWhitespace(sql.charAt(start))
+          || sql.charAt(start) == '(')) {
+        start++;
+      }
+      for (var type : values()) {
+        if (type != OTHER && sql.regionMatches(true, start, type.name(), 0, type.name().length())) {
+          return type;
+        }
+      }
+      return OTHER;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.users.api.config.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SqlScopeFilter extends OncePerRequestFilter {
+
+  private final SqlInstrumentation sqlInstrumentation;
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                  @NonNull HttpServletResponse response,
+                                  @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    sqlInstrumentation.beginScope();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      sqlInstrumentation.endScope(request.getMethod() + " " + request.getRequestURI());
+    }
+  }
+}
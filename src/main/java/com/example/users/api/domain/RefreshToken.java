@@ -0,0 +1,50 @@
+package com.example.users.api.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.Objects;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "REFRESH_TOKENS", indexes = @Index(columnList = "username"))
+public class RefreshToken {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "token_hash", unique = true, nullable = false)
+  private String tokenHash;
+
+  @Column(nullable = false)
+  private String username;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+      return false;
+    }
+    RefreshToken token = (RefreshToken) o;
+    return getId() != null && Objects.equals(getId(), token.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    return getClass().hashCode();
+  }
+}
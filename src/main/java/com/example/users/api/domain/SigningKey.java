@@ -0,0 +1,49 @@
+package com.example.users.api.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.Objects;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "SIGNING_KEYS")
+public class SigningKey {
+  @Id
+  private String kid;
+
+  @Column(nullable = false)
+  private String algorithm;
+
+  @Column(name = "public_key", nullable = false)
+  private byte[] publicKey;
+
+  @Column(name = "private_key", nullable = false)
+  private byte[] privateKey;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) {
+      return false;
+    }
+    SigningKey key = (SigningKey) o;
+    return getKid() != null && Objects.equals(getKid(), key.getKid());
+  }
+
+  @Override
+  public int hashCode() {
+    return getClass().hashCode();
+  }
+}
@@ -2,23 +2,41 @@ package com.example.users.api.domain;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Objects;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GeneratedColumn;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Where;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "USERS")
+@Table(name = "USERS", indexes = {
+    @Index(name = "users_birth_date_idx", columnList = "birth_date"),
+    @Index(name = "users_birth_month_day_idx", columnList = "birth_month_day, id")
+})
+@Where(clause = "deleted_at is null")
 public class User {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "users_id")
+  @GenericGenerator(name = "users_id", type = UserIdGenerator.class, parameters = {
+      @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "users_id_seq"),
+      @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "1")
+  })
   private Long id;
 
   @Column(name = "first_name")
@@ -27,6 +45,7 @@ public class User {
   @Column(name = "last_name")
   private String lastName;
 
+  @Column(unique = true)
   private String username;
 
   private String email;
@@ -41,6 +60,45 @@ public class User {
   @Column(name = "phone_number")
   private String phoneNumber;
 
+  @Enumerated(EnumType.STRING)
+  @ColumnDefault("'ACTIVE'")
+  @Column(nullable = false)
+  private UserStatus status = UserStatus.ACTIVE;
+
+  @Setter(AccessLevel.NONE)
+  @GeneratedColumn("lower(coalesce(first_name, '') || ' ' || coalesce(last_name, ''))")
+  @Column(name = "normalized_name", insertable = false, updatable = false)
+  private String normalizedName;
+
+  @Setter(AccessLevel.NONE)
+  @GeneratedColumn("lower(username)")
+  @Column(name = "normalized_username", insertable = false, updatable = false)
+  private String normalizedUsername;
+
+  @Setter(AccessLevel.NONE)
+  @GeneratedColumn("lower(email)")
+  @Column(name = "normalized_email", insertable = false, updatable = false)
+  private String normalizedEmail;
+
+  @Setter(AccessLevel.NONE)
+  @GeneratedColumn("(extract(month from birth_date) * 100 + extract(day from birth_date))::int")
+  @Column(name = "birth_month_day", insertable = false, updatable = false)
+  private Integer birthMonthDay;
+
+  // Set by soft deletes, which hide the row from every query until it is purged
+  @Setter(AccessLevel.NONE)
+  @Column(name = "deleted_at", insertable = false, updatable = false)
+  private Instant deletedAt;
+
+  // Maintained by a trigger on every write, together with the change feed position
+  @Setter(AccessLevel.NONE)
+  @Column(name = "created_at", insertable = false, updatable = false)
+  private Instant createdAt;
+
+  @Setter(AccessLevel.NONE)
+  @Column(name = "updated_at", insertable = false, updatable = false)
+  private Instant updatedAt;
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
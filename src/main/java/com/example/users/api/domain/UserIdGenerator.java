@@ -0,0 +1,55 @@
+package com.example.users.api.domain;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Generates ids whose low bits hold the user's bucket, a stable hash of the username, when
+ * {@link #BUCKETED_IDS} is set. Users are sharded by bucket, so an id alone tells which shard holds
+ * the user. Without sharding the ids are plain sequence values. The sequence must not be pooled:
+ * its values come from the shard the insert goes to.
+ */
+public class UserIdGenerator extends SequenceStyleGenerator {
+  public static final String BUCKETED_IDS = "users.bucketed-ids";
+  public static final int BUCKET_BITS = 10;
+  public static final int BUCKETS = 1 << BUCKET_BITS;
+
+  private boolean bucketed;
+
+  @Override
+  public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry)
+      throws MappingException {
+    super.configure(type, parameters, serviceRegistry);
+    bucketed = serviceRegistry.getService(ConfigurationService.class)
+        .getSetting(BUCKETED_IDS, value -> Boolean.parseBoolean(value.toString()), false);
+  }
+
+  @Override
+  public Object generate(SharedSessionContractImplementor session, Object object) {
+    var sequenceValue = (Long) super.generate(session, object);
+    if (!bucketed) {
+      return sequenceValue;
+    }
+    return sequenceValue << BUCKET_BITS | bucketOf(((User) object).getUsername());
+  }
+
+  public static int bucketOf(String username) {
+    // Murmur3 finalizer, as the low bits of String.hashCode are poorly distributed
+    var hash = username.hashCode();
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash & (BUCKETS - 1);
+  }
+
+  public static int bucketOf(long id) {
+    return (int) (id & (BUCKETS - 1));
+  }
+}
@@ -0,0 +1,6 @@
+package com.example.users.api.domain;
+
+public enum UserStatus {
+  PENDING,
+  ACTIVE
+}
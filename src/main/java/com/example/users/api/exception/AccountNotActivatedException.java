@@ -0,0 +1,7 @@
+package com.example.users.api.exception;
+
+public class AccountNotActivatedException extends ExpectedException {
+  public AccountNotActivatedException(String message) {
+    super(message);
+  }
+}
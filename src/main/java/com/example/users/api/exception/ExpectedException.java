@@ -0,0 +1,11 @@
+package com.example.users.api.exception;
+
+/**
+ * Errors that are part of normal operation, such as taken usernames or throttled requests. They
+ * are created without a stack trace, which is costly to fill in and never read.
+ */
+public abstract class ExpectedException extends RuntimeException {
+  protected ExpectedException(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.users.api.exception;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * {@link BadCredentialsException} without a stack trace, thrown for every rejected sign-in or
+ * refresh.
+ */
+public class InvalidCredentialsException extends BadCredentialsException {
+  public InvalidCredentialsException(String message) {
+    super(message);
+  }
+
+  @Override
+  public Throwable fillInStackTrace() {
+    return this;
+  }
+}
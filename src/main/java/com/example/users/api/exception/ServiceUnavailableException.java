@@ -0,0 +1,14 @@
+package com.example.users.api.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+@Getter
+public class ServiceUnavailableException extends ExpectedException {
+  private final Duration retryAfter;
+
+  public ServiceUnavailableException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -1,6 +1,6 @@
 package com.example.users.api.exception;
 
-public class UserAlreadyExistsException extends RuntimeException {
+public class UserAlreadyExistsException extends ExpectedException {
   public UserAlreadyExistsException(String message) {
     super(message);
   }
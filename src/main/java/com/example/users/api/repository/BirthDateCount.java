@@ -0,0 +1,9 @@
+package com.example.users.api.repository;
+
+import java.time.LocalDate;
+
+public interface BirthDateCount {
+  LocalDate getBirthDate();
+
+  long getCount();
+}
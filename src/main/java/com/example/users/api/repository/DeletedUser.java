@@ -0,0 +1,11 @@
+package com.example.users.api.repository;
+
+import java.time.LocalDate;
+
+public interface DeletedUser {
+  Long getId();
+
+  String getUsername();
+
+  LocalDate getBirthDate();
+}
@@ -0,0 +1,30 @@
+package com.example.users.api.repository;
+
+import com.example.users.api.config.sharding.ShardKey;
+import com.example.users.api.domain.RefreshToken;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+  Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+  @Modifying
+  @Query("delete from RefreshToken t where t.id = :id and t.username = :username")
+  int deleteByIdAndUsername(@Param("id") Long id, @ShardKey @Param("username") String username);
+
+  @Modifying
+  @Query("delete from RefreshToken t where t.username = :username")
+  int deleteAllByUsername(@ShardKey @Param("username") String username);
+
+  @Transactional
+  @Modifying
+  @Query("delete from RefreshToken t where t.expiresAt < :instant")
+  int deleteAllExpiredBefore(@Param("instant") Instant instant);
+}
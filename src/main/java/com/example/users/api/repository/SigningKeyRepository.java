@@ -0,0 +1,21 @@
+package com.example.users.api.repository;
+
+import com.example.users.api.domain.SigningKey;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, String> {
+  List<SigningKey> findAllByOrderByCreatedAtDesc();
+
+  @Transactional
+  @Modifying
+  @Query("delete from SigningKey k where k.createdAt < :instant")
+  int deleteAllCreatedBefore(@Param("instant") Instant instant);
+}
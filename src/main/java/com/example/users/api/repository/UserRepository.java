@@ -1,19 +1,120 @@
 package com.example.users.api.repository;
 
+import com.example.users.api.config.sharding.ShardKey;
+import com.example.users.api.config.sharding.ShardMerge;
+import com.example.users.api.config.sharding.ShardMerge.Order;
 import com.example.users.api.domain.User;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-  Optional<User> findByUsername(String username);
+  Optional<User> findByUsername(@ShardKey String username);
 
-  List<User> findAllByBirthDateBetween(LocalDate fromDate, LocalDate toDate);
+  @Transactional(readOnly = true)
+  @ShardMerge(Order.BIRTH_DATE)
+  @Query("""
+      select u from User u where u.birthDate between :fromDate and :toDate
+      order by u.birthDate, u.id""")
+  List<User> findAllByBirthDateBetween(@Param("fromDate") LocalDate fromDate,
+                                       @Param("toDate") LocalDate toDate);
 
-  boolean existsByUsername(String username);
+  // Soft-deleted rows count, their usernames stay taken until the row is purged
+  @Query(nativeQuery = true,
+      value = "select exists(select 1 from users u where u.username = :username)")
+  boolean existsByUsernameIncludingDeleted(@ShardKey @Param("username") String username);
 
-  void deleteByUsername(String username);
+  @Query(nativeQuery = true, value = """
+      delete from users u where u.username = :username and u.deleted_at is null
+      returning u.id as id, u.username as username, u.birth_date as \"birthDate\"""")
+  List<DeletedUser> deleteByUsername(@ShardKey @Param("username") String username);
+
+  @Query(nativeQuery = true, value = """
+      update users u set deleted_at = now()
+      where u.username = :username and u.deleted_at is null
+      returning u.id as id, u.username as username, u.birth_date as \"birthDate\"""")
+  List<DeletedUser> softDeleteByUsername(@ShardKey @Param("username") String username);
+
+  @Transactional
+  @Modifying
+  @Query(nativeQuery = true, value = """
+      delete from users where id in (
+          select id from users where deleted_at is not null order by id limit :limit)""")
+  int purgeDeleted(@Param("limit") int limit);
+
+  @Query("select u.birthDate as birthDate, count(u) as count from User u group by u.birthDate")
+  List<BirthDateCount> countAllGroupByBirthDate();
+
+  @ShardMerge(Order.BIRTH_MONTH_DAY)
+  @Query(nativeQuery = true, value = """
+      select * from users u
+      where u.birth_month_day between :fromMonthDay and :toMonthDay
+          and (u.birth_month_day, u.id) > (:afterMonthDay, :afterId)
+          and u.deleted_at is null
+      order by u.birth_month_day, u.id
+      limit :limit""")
+  List<User> findAllByBirthMonthDayBetween(@Param("fromMonthDay") int fromMonthDay,
+                                           @Param("toMonthDay") int toMonthDay,
+                                           @Param("afterMonthDay") int afterMonthDay,
+                                           @Param("afterId") long afterId,
+                                           @Param("limit") int limit);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select u.username from User u")
+  Stream<String> streamAllUsernames();
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("""
+      select u.username as username, u.firstName as firstName, u.lastName as lastName,
+          u.email as email
+      from User u""")
+  Stream<UserSearchKeys> streamAllSearchKeys();
+
+  @Query("""
+      select u.username as username, u.firstName as firstName, u.lastName as lastName,
+          u.email as email
+      from User u where u.username in :usernames""")
+  List<UserSearchKeys> findSearchKeysByUsernameIn(
+      @Param("usernames") Collection<String> usernames);
+
+  @ShardMerge(Order.ID)
+  @Query(nativeQuery = true, value = """
+      select * from users u
+      where u.id > :afterId and u.deleted_at is null
+          and (u.normalized_name like :pattern or u.normalized_username like :pattern
+              or u.normalized_email like :pattern or :query <% u.normalized_name)
+      order by u.id
+      limit :limit""")
+  List<User> search(@Param("query") String query, @Param("pattern") String pattern,
+                    @Param("afterId") long afterId, @Param("limit") int limit);
+
+  @ShardMerge(Order.USERNAME)
+  @Query(nativeQuery = true, value = """
+      select u.username from users u
+      where (u.normalized_username like :prefix or u.normalized_name like :prefix
+              or u.normalized_name like ('% ' || :prefix))
+          and u.deleted_at is null
+      order by u.normalized_username collate "C"
+      limit :limit""")
+  List<String> findUsernamesByPrefix(@Param("prefix") String prefix, @Param("limit") int limit);
+
+  @Transactional
+  @Modifying
+  @Query("""
+      update User u set u.password = :password,
+          u.status = com.example.users.api.domain.UserStatus.ACTIVE
+      where u.id = :id and u.status = com.example.users.api.domain.UserStatus.PENDING""")
+  int activate(@ShardKey @Param("id") Long id, @Param("password") String password);
 }
@@ -0,0 +1,11 @@
+package com.example.users.api.repository;
+
+public interface UserSearchKeys {
+  String getUsername();
+
+  String getFirstName();
+
+  String getLastName();
+
+  String getEmail();
+}
@@ -0,0 +1,70 @@
+package com.example.users.api.security;
+
+import static org.springframework.util.StringUtils.hasText;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates API gateways by the {@code <id>:<key>} pair in the {@value #HEADER} header,
+ * checked against {@code jwt.introspection.gateway-keys}. The gateway id becomes the principal
+ * name. Without configured keys no request is authenticated as a gateway.
+ */
+@Component
+public class GatewayAuthenticationFilter extends OncePerRequestFilter {
+  public static final String HEADER = "X-Gateway-Key";
+  public static final String ROLE = "GATEWAY";
+
+  private final Map<String, byte[]> gatewayKeys = new HashMap<>();
+
+  public GatewayAuthenticationFilter(
+      @Value("${jwt.introspection.gateway-keys}") List<String> gatewayKeys) {
+    for (var entry : gatewayKeys) {
+      if (!hasText(entry)) {
+        continue;
+      }
+      var separator = entry.indexOf(':');
+      if (separator < 1 || separator == entry.length() - 1) {
+        throw new IllegalArgumentException(
+            "jwt.introspection.gateway-keys entries must look like <id>:<key>");
+      }
+      this.gatewayKeys.put(entry.substring(0, separator),
+          entry.substring(separator + 1).getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                  @NonNull HttpServletResponse response,
+                                  @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    var header = request.getHeader(HEADER);
+    var separator = hasText(header) ? header.indexOf(':') : -1;
+    if (separator > 0) {
+      var id = header.substring(0, separator);
+      var expected = gatewayKeys.get(id);
+      var key = header.substring(separator + 1).getBytes(StandardCharsets.UTF_8);
+      if (expected != null && MessageDigest.isEqual(expected, key)) {
+        var authentication = new UsernamePasswordAuthenticationToken(id, null,
+            List.of(new SimpleGrantedAuthority("ROLE_" + ROLE)));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+}
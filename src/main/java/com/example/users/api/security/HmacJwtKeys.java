@@ -0,0 +1,36 @@
+package com.example.users.api.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import java.util.Optional;
+
+public class HmacJwtKeys implements JwtKeys {
+  private final Algorithm algorithm;
+  private final Optional<JWTVerifier> verifier;
+
+  public HmacJwtKeys(String secret, String issuer) {
+    this.algorithm = Algorithm.HMAC256(secret);
+    this.verifier = Optional.of(JWT.require(algorithm).withIssuer(issuer).build());
+  }
+
+  @Override
+  public String signingKeyId() {
+    return null;
+  }
+
+  @Override
+  public Algorithm signingAlgorithm() {
+    return algorithm;
+  }
+
+  @Override
+  public Optional<JWTVerifier> verifier(String keyId) {
+    return keyId == null ? verifier : Optional.empty();
+  }
+
+  @Override
+  public String jwks() {
+    return "{\"keys\":[]}";
+  }
+}
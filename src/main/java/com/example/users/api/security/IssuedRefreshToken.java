@@ -0,0 +1,6 @@
+package com.example.users.api.security;
+
+import java.time.Instant;
+
+public record IssuedRefreshToken(String username, String token, Instant expiresAt) {
+}
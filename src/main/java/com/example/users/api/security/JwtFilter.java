@@ -22,6 +22,7 @@ public class JwtFilter extends OncePerRequestFilter {
 
   private final JwtTokenProvider jwtProvider;
   private final UserDetailsService userDetailsService;
+  private final TokenDenyList tokenDenyList;
 
   @Override
   protected void doFilterInternal(@NonNull HttpServletRequest request,
@@ -31,12 +32,13 @@ public class JwtFilter extends OncePerRequestFilter {
     var maybeToken = getTokenFromRequest(request);
     if (maybeToken.isPresent()) {
       var token = maybeToken.get();
-      if (jwtProvider.toDecodedJWT(token).isPresent()) {
-        var username = jwtProvider.getUsernameFromToken(token);
-        var userDetails = userDetailsService.loadUserByUsername(username);
+      var maybeJwt = jwtProvider.toDecodedJWT(token)
+          .filter(jwt -> !tokenDenyList.isDenied(jwt.getId()));
+      if (maybeJwt.isPresent()) {
+        var userDetails = userDetailsService.loadUserByUsername(maybeJwt.get().getSubject());
         var authentication = new UsernamePasswordAuthenticationToken(
             userDetails,
-            null,
+            maybeJwt.get(),
             userDetails.getAuthorities()
         );
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -0,0 +1,15 @@
+package com.example.users.api.security;
+
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import java.util.Optional;
+
+public interface JwtKeys {
+  String signingKeyId();
+
+  Algorithm signingAlgorithm();
+
+  Optional<JWTVerifier> verifier(String keyId);
+
+  String jwks();
+}
@@ -0,0 +1,31 @@
+package com.example.users.api.security;
+
+import com.example.users.api.repository.SigningKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JwtKeysConfig {
+
+  @Bean
+  public JwtKeys jwtKeys(@Value("${jwt.algorithm}") String algorithm,
+                         @Value("${jwt.secret}") String secret,
+                         @Value("${jwt.issuer}") String issuer,
+                         @Value("${jwt.keys.rotation-interval}") Duration rotationInterval,
+                         @Value("${jwt.access-token.ttl}") Duration accessTokenTtl,
+                         SigningKeyRepository signingKeyRepository,
+                         ObjectMapper objectMapper) {
+    if (algorithm.equals("HS256")) {
+      return new HmacJwtKeys(secret, issuer);
+    }
+    // A key signs for one rotation interval and its tokens outlive it by the access token ttl
+    var retention = rotationInterval.multipliedBy(2).plus(accessTokenTtl);
+    var keys = new RotatingJwtKeys(signingKeyRepository, algorithm, issuer, rotationInterval,
+        retention, secret, objectMapper);
+    keys.refresh();
+    return keys;
+  }
+}
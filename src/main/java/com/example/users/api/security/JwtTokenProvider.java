@@ -1,54 +1,74 @@
 package com.example.users.api.security;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import java.time.LocalDate;
-import java.time.ZoneId;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
-import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
-@NoArgsConstructor
-@AllArgsConstructor
 public class JwtTokenProvider {
-  @Value("${jwt.secret}")
-  private String jwtSecret;
+  private final JwtKeys jwtKeys;
+  private final String jwtIssuer;
+  private final Duration accessTokenTtl;
+  private final VerifiedTokenCache verifiedTokenCache;
 
-  @Value("${jwt.issuer}")
-  private String jwtIssuer;
+  @Autowired
+  public JwtTokenProvider(JwtKeys jwtKeys,
+                          @Value("${jwt.issuer}") String jwtIssuer,
+                          @Value("${jwt.access-token.ttl}") Duration accessTokenTtl,
+                          VerifiedTokenCache verifiedTokenCache) {
+    this.jwtKeys = jwtKeys;
+    this.jwtIssuer = jwtIssuer;
+    this.accessTokenTtl = accessTokenTtl;
+    this.verifiedTokenCache = verifiedTokenCache;
+  }
+
+  public JwtTokenProvider(JwtKeys jwtKeys, String jwtIssuer, Duration accessTokenTtl) {
+    this(jwtKeys, jwtIssuer, accessTokenTtl, new VerifiedTokenCache(0, Duration.ZERO));
+  }
+
+  public JwtTokenProvider(String jwtSecret, String jwtIssuer) {
+    this(new HmacJwtKeys(jwtSecret, jwtIssuer), jwtIssuer, Duration.ofMinutes(15));
+  }
 
   public String generateToken(String username) {
-    return JWT.create()
+    var builder = JWT.create()
         .withIssuer(jwtIssuer)
         .withSubject(username)
-        .withExpiresAt(LocalDate.now()
-            .plusDays(15)
-            .atStartOfDay(ZoneId.systemDefault())
-            .toInstant())
-        .sign(Algorithm.HMAC256(jwtSecret));
+        .withJWTId(UUID.randomUUID().toString())
+        .withExpiresAt(Instant.now().plus(accessTokenTtl));
+    var keyId = jwtKeys.signingKeyId();
+    if (keyId != null) {
+      builder.withKeyId(keyId);
+    }
+    return builder.sign(jwtKeys.signingAlgorithm());
   }
 
   public Optional<DecodedJWT> toDecodedJWT(String token) {
+    var cached = verifiedTokenCache.get(token);
+    if (cached.isPresent()) {
+      return cached;
+    }
     try {
-      return Optional.of(JWT.require(Algorithm.HMAC256(jwtSecret))
-          .withIssuer(jwtIssuer)
-          .build()
-          .verify(token));
+      var decoded = JWT.decode(token);
+      var verified = jwtKeys.verifier(decoded.getKeyId())
+          .map(verifier -> verifier.verify(decoded));
+      verified.ifPresent(jwt -> verifiedTokenCache.put(token, jwt));
+      return verified;
     } catch (JWTVerificationException exception) {
       return Optional.empty();
     }
   }
 
   public String getUsernameFromToken(String token) {
-    return JWT.require(Algorithm.HMAC256(jwtSecret))
-        .withIssuer(jwtIssuer)
-        .build()
-        .verify(token)
+    return toDecodedJWT(token)
+        .orElseThrow(() -> new JWTVerificationException("Invalid token"))
         .getSubject();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.example.users.api.security;
+
+import com.example.users.api.domain.RefreshToken;
+import com.example.users.api.repository.RefreshTokenRepository;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+  private static final int TOKEN_BYTES = 32;
+
+  private final RefreshTokenRepository refreshTokenRepository;
+  private final SecureRandom secureRandom = new SecureRandom();
+
+  @Value("${jwt.refresh-token.ttl}")
+  private Duration refreshTokenTtl;
+
+  @Transactional
+  public IssuedRefreshToken issue(String username) {
+    var bytes = new byte[TOKEN_BYTES];
+    secureRandom.nextBytes(bytes);
+    var rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    var refreshToken = new RefreshToken();
+    refreshToken.setTokenHash(hash(rawToken));
+    refreshToken.setUsername(username);
+    refreshToken.setExpiresAt(Instant.now().plus(refreshTokenTtl));
+    refreshTokenRepository.save(refreshToken);
+    return new IssuedRefreshToken(username, rawToken, refreshToken.getExpiresAt());
+  }
+
+  @Transactional
+  public Optional<IssuedRefreshToken> rotate(String rawToken) {
+    var maybeToken = refreshTokenRepository.findByTokenHash(hash(rawToken))
+        .filter(token -> token.getExpiresAt().isAfter(Instant.now()));
+    // Losing a concurrent rotation of the same token deletes nothing and must not mint a new one
+    if (maybeToken.isEmpty() || refreshTokenRepository.deleteByIdAndUsername(
+        maybeToken.get().getId(), maybeToken.get().getUsername()) == 0) {
+      return Optional.empty();
+    }
+    return Optional.of(issue(maybeToken.get().getUsername()));
+  }
+
+  @Transactional
+  public void revokeAll(String username) {
+    refreshTokenRepository.deleteAllByUsername(username);
+  }
+
+  @EventListener
+  public void onUpdated(UserUpdatedEvent event) {
+    if (!event.user().getUsername().equals(event.previousUsername())) {
+      refreshTokenRepository.deleteAllByUsername(event.previousUsername());
+    }
+  }
+
+  @EventListener
+  public void onDeleted(UserDeletedEvent event) {
+    refreshTokenRepository.deleteAllByUsername(event.username());
+  }
+
+  @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval}")
+  public void purgeExpired() {
+    refreshTokenRepository.deleteAllExpiredBefore(Instant.now());
+  }
+
+  private static String hash(String rawToken) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256")
+          .digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+}
@@ -0,0 +1,264 @@
+package com.example.users.api.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.users.api.domain.SigningKey;
+import com.example.users.api.repository.SigningKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Asymmetric signing keys shared by all nodes through the SIGNING_KEYS table. A new key is created
+ * once the newest one is older than the rotation interval, and older keys stay available for
+ * verification until every token they signed has expired.
+ */
+@Slf4j
+public class RotatingJwtKeys implements JwtKeys {
+  private static final long RELOAD_THROTTLE = Duration.ofSeconds(5).toNanos();
+  private static final int IV_LENGTH = 12;
+
+  private final SigningKeyRepository signingKeyRepository;
+  private final String algorithm;
+  private final String issuer;
+  private final Duration rotationInterval;
+  private final Duration retention;
+  private final SecretKeySpec wrappingKey;
+  private final ObjectMapper objectMapper;
+  private final SecureRandom secureRandom = new SecureRandom();
+  private final AtomicLong lastReload = new AtomicLong(System.nanoTime() - RELOAD_THROTTLE);
+  private volatile KeyRing keyRing;
+
+  public RotatingJwtKeys(SigningKeyRepository signingKeyRepository, String algorithm,
+                         String issuer, Duration rotationInterval, Duration retention,
+                         String secret, ObjectMapper objectMapper) {
+    if (!algorithm.equals("ES256") && !algorithm.equals("RS256")) {
+      throw new IllegalArgumentException("Unsupported JWT algorithm " + algorithm);
+    }
+    this.signingKeyRepository = signingKeyRepository;
+    this.algorithm = algorithm;
+    this.issuer = issuer;
+    this.rotationInterval = rotationInterval;
+    this.retention = retention;
+    this.wrappingKey = new SecretKeySpec(sha256(secret), "AES");
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public String signingKeyId() {
+    return keyRing.signingKeyId();
+  }
+
+  @Override
+  public Algorithm signingAlgorithm() {
+    return keyRing.signingAlgorithm();
+  }
+
+  @Override
+  public Optional<JWTVerifier> verifier(String keyId) {
+    if (keyId == null) {
+      return Optional.empty();
+    }
+    var verifier = keyRing.verifiers().get(keyId);
+    if (verifier == null && tryAcquireReload()) {
+      // Another node may have rotated in a key this one has not loaded yet
+      reload();
+      verifier = keyRing.verifiers().get(keyId);
+    }
+    return Optional.ofNullable(verifier);
+  }
+
+  @Override
+  public String jwks() {
+    return keyRing.jwks();
+  }
+
+  @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval}",
+      initialDelayString = "${jwt.keys.refresh-interval}")
+  public void refresh() {
+    var keys = signingKeyRepository.findAllByOrderByCreatedAtDesc();
+    if (keys.isEmpty() || keys.get(0).getCreatedAt().isBefore(Instant.now().minus(rotationInterval))
+        || !keys.get(0).getAlgorithm().equals(algorithm)) {
+      signingKeyRepository.save(generateKey());
+      log.info("Rotated JWT signing key");
+    }
+    signingKeyRepository.deleteAllCreatedBefore(Instant.now().minus(retention));
+    reload();
+  }
+
+  private void reload() {
+    lastReload.set(System.nanoTime());
+    var keys = signingKeyRepository.findAllByOrderByCreatedAtDesc();
+    if (keys.isEmpty()) {
+      throw new IllegalStateException("No JWT signing keys available");
+    }
+    var current = keys.get(0);
+    var verifiers = new HashMap<String, JWTVerifier>();
+    var jwks = new ArrayList<Map<String, String>>();
+    Algorithm signingAlgorithm = null;
+    for (var key : keys) {
+      var publicKey = decodePublicKey(key);
+      var privateKey = key == current ? decodePrivateKey(key) : null;
+      var keyAlgorithm = toAlgorithm(key.getAlgorithm(), publicKey, privateKey);
+      verifiers.put(key.getKid(), JWT.require(keyAlgorithm).withIssuer(issuer).build());
+      jwks.add(toJwk(key, publicKey));
+      if (key == current) {
+        signingAlgorithm = keyAlgorithm;
+      }
+    }
+    try {
+      keyRing = new KeyRing(current.getKid(), signingAlgorithm, Map.copyOf(verifiers),
+          objectMapper.writeValueAsString(Map.of("keys", jwks)));
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private boolean tryAcquireReload() {
+    var previous = lastReload.get();
+    var now = System.nanoTime();
+    return now - previous >= RELOAD_THROTTLE && lastReload.compareAndSet(previous, now);
+  }
+
+  private SigningKey generateKey() {
+    try {
+      KeyPairGenerator generator;
+      if (algorithm.equals("ES256")) {
+        generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"), secureRandom);
+      } else {
+        generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048, secureRandom);
+      }
+      var keyPair = generator.generateKeyPair();
+      var key = new SigningKey();
+      key.setKid(UUID.randomUUID().toString());
+      key.setAlgorithm(algorithm);
+      key.setPublicKey(keyPair.getPublic().getEncoded());
+      key.setPrivateKey(wrap(keyPair.getPrivate().getEncoded()));
+      key.setCreatedAt(Instant.now());
+      return key;
+    } catch (GeneralSecurityException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static Algorithm toAlgorithm(String algorithm, PublicKey publicKey,
+                                       PrivateKey privateKey) {
+    return switch (algorithm) {
+      case "ES256" -> Algorithm.ECDSA256((ECPublicKey) publicKey, (ECPrivateKey) privateKey);
+      case "RS256" -> Algorithm.RSA256((RSAPublicKey) publicKey, (RSAPrivateKey) privateKey);
+      default -> throw new IllegalStateException("Unsupported JWT algorithm " + algorithm);
+    };
+  }
+
+  private static Map<String, String> toJwk(SigningKey key, PublicKey publicKey) {
+    var jwk = new LinkedHashMap<String, String>();
+    jwk.put("kid", key.getKid());
+    jwk.put("use", "sig");
+    jwk.put("alg", key.getAlgorithm());
+    if (publicKey instanceof ECPublicKey ecKey) {
+      jwk.put("kty", "EC");
+      jwk.put("crv", "P-256");
+      jwk.put("x", base64Url(ecKey.getW().getAffineX(), 32));
+      jwk.put("y", base64Url(ecKey.getW().getAffineY(), 32));
+    } else if (publicKey instanceof RSAPublicKey rsaKey) {
+      jwk.put("kty", "RSA");
+      jwk.put("n", base64Url(rsaKey.getModulus(), (rsaKey.getModulus().bitLength() + 7) / 8));
+      jwk.put("e", base64Url(rsaKey.getPublicExponent(),
+          (rsaKey.getPublicExponent().bitLength() + 7) / 8));
+    }
+    return jwk;
+  }
+
+  private static String base64Url(BigInteger value, int length) {
+    var bytes = value.toByteArray();
+    var unsigned = new byte[length];
+    var copied = Math.min(bytes.length, length);
+    System.arraycopy(bytes, bytes.length - copied, unsigned, length - copied, copied);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+  }
+
+  private PublicKey decodePublicKey(SigningKey key) {
+    try {
+      return KeyFactory.getInstance(keyFactoryAlgorithm(key))
+          .generatePublic(new X509EncodedKeySpec(key.getPublicKey()));
+    } catch (GeneralSecurityException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private PrivateKey decodePrivateKey(SigningKey key) {
+    try {
+      return KeyFactory.getInstance(keyFactoryAlgorithm(key))
+          .generatePrivate(new PKCS8EncodedKeySpec(unwrap(key.getPrivateKey())));
+    } catch (GeneralSecurityException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static String keyFactoryAlgorithm(SigningKey key) {
+    return key.getAlgorithm().startsWith("ES") ? "EC" : "RSA";
+  }
+
+  private byte[] wrap(byte[] privateKey) throws GeneralSecurityException {
+    var iv = new byte[IV_LENGTH];
+    secureRandom.nextBytes(iv);
+    var cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(128, iv));
+    var encrypted = cipher.doFinal(privateKey);
+    return ByteBuffer.allocate(IV_LENGTH + encrypted.length).put(iv).put(encrypted).array();
+  }
+
+  private byte[] unwrap(byte[] wrapped) throws GeneralSecurityException {
+    var cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(Cipher.DECRYPT_MODE, wrappingKey,
+        new GCMParameterSpec(128, Arrays.copyOf(wrapped, IV_LENGTH)));
+    return cipher.doFinal(wrapped, IV_LENGTH, wrapped.length - IV_LENGTH);
+  }
+
+  private static byte[] sha256(String secret) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private record KeyRing(String signingKeyId, Algorithm signingAlgorithm,
+                         Map<String, JWTVerifier> verifiers, String jwks) {
+  }
+}
@@ -1,5 +1,6 @@
 package com.example.users.api.security;
 
+import com.example.users.api.security.ratelimit.ConcurrencyLimitFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +19,8 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
   private final JwtFilter jwtFilter;
+  private final GatewayAuthenticationFilter gatewayAuthenticationFilter;
+  private final ConcurrencyLimitFilter concurrencyLimitFilter;
 
   @Bean
   public PasswordEncoder passwordEncoder() {
@@ -32,10 +35,15 @@ public class SecurityConfig {
             .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(request -> request
             .requestMatchers("/users", "/users/*").authenticated()
-            .requestMatchers("/auth/*").permitAll()
+            .requestMatchers("/auth/sign-out").authenticated()
+            .requestMatchers("/auth/introspect").hasRole(GatewayAuthenticationFilter.ROLE)
+            .requestMatchers("/auth/*", "/auth/sign-up/*").permitAll()
+            .requestMatchers("/.well-known/jwks.json").permitAll()
             .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
             .anyRequest().authenticated())
         .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+        .addFilterAfter(gatewayAuthenticationFilter, JwtFilter.class)
+        .addFilterBefore(concurrencyLimitFilter, JwtFilter.class)
         .build();
   }
 }
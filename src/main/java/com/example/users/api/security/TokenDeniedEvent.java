@@ -0,0 +1,6 @@
+package com.example.users.api.security;
+
+import java.time.Instant;
+
+public record TokenDeniedEvent(String tokenId, Instant expiresAt) {
+}
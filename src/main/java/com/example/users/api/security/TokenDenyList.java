@@ -0,0 +1,53 @@
+package com.example.users.api.security;
+
+import com.example.users.api.service.event.ClusterInvalidation;
+import com.example.users.api.service.event.ClusterInvalidationEvent;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TokenDenyList {
+  private final ConcurrentHashMap<String, Instant> deniedTokens = new ConcurrentHashMap<>();
+  private final ApplicationEventPublisher eventPublisher;
+
+  public void deny(String tokenId, Instant expiresAt) {
+    if (put(tokenId, expiresAt)) {
+      eventPublisher.publishEvent(new TokenDeniedEvent(tokenId, expiresAt));
+    }
+  }
+
+  public boolean isDenied(String tokenId) {
+    return tokenId != null && deniedTokens.containsKey(tokenId);
+  }
+
+  public int size() {
+    return deniedTokens.size();
+  }
+
+  @Scheduled(fixedDelayString = "${jwt.deny-list.eviction-interval}")
+  public void evictExpired() {
+    var now = Instant.now();
+    deniedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+  }
+
+  @EventListener
+  public void onClusterInvalidation(ClusterInvalidationEvent event) {
+    event.invalidations().stream()
+        .filter(invalidation -> invalidation.type() == ClusterInvalidation.Type.TOKEN_DENIED)
+        .forEach(invalidation -> put(invalidation.tokenId(), invalidation.expiresAt()));
+  }
+
+  private boolean put(String tokenId, Instant expiresAt) {
+    if (tokenId != null && expiresAt != null && expiresAt.isAfter(Instant.now())) {
+      deniedTokens.put(tokenId, expiresAt);
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.users.api.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks a batch of access tokens at once for API gateways. Tokens in the verified token cache are
+ * answered straight away, the others are verified in chunks on the introspection executor with
+ * the caller taking the first chunk and any chunk the executor rejects.
+ */
+@Component
+public class TokenIntrospector {
+  private final JwtTokenProvider jwtTokenProvider;
+  private final VerifiedTokenCache verifiedTokenCache;
+  private final TokenDenyList tokenDenyList;
+  private final Executor executor;
+  private final int maxTokens;
+  private final int chunkSize;
+
+  public TokenIntrospector(JwtTokenProvider jwtTokenProvider,
+                           VerifiedTokenCache verifiedTokenCache,
+                           TokenDenyList tokenDenyList,
+                           @Qualifier("introspectionExecutor") Executor executor,
+                           @Value("${jwt.introspection.max-tokens}") int maxTokens,
+                           @Value("${jwt.introspection.chunk-size}") int chunkSize) {
+    this.jwtTokenProvider = jwtTokenProvider;
+    this.verifiedTokenCache = verifiedTokenCache;
+    this.tokenDenyList = tokenDenyList;
+    this.executor = executor;
+    this.maxTokens = maxTokens;
+    this.chunkSize = Math.max(1, chunkSize);
+  }
+
+  /**
+   * Returns the verified token for every active one and empty for the rest, in request order.
+   */
+  @SuppressWarnings("unchecked")
+  public List<Optional<DecodedJWT>> introspect(List<String> tokens) {
+    if (tokens.size() > maxTokens) {
+      throw new IllegalArgumentException(
+          "At most " + maxTokens + " tokens can be introspected at once");
+    }
+    var results = (Optional<DecodedJWT>[]) new Optional<?>[tokens.size()];
+    var uncached = new ArrayList<Integer>();
+    for (var i = 0; i < tokens.size(); i++) {
+      var cached = verifiedTokenCache.get(tokens.get(i));
+      if (cached.isPresent()) {
+        results[i] = cached;
+      } else {
+        uncached.add(i);
+      }
+    }
+    var futures = new ArrayList<CompletableFuture<Void>>();
+    for (var start = chunkSize; start < uncached.size(); start += chunkSize) {
+      var chunk = uncached.subList(start, Math.min(start + chunkSize, uncached.size()));
+      try {
+        futures.add(CompletableFuture.runAsync(() -> verify(tokens, chunk, results), executor));
+      } catch (RejectedExecutionException e) {
+        verify(tokens, chunk, results);
+      }
+    }
+    verify(tokens, uncached.subList(0, Math.min(chunkSize, uncached.size())), results);
+    futures.forEach(CompletableFuture::join);
+    return Arrays.stream(results)
+        .map(jwt -> jwt.filter(verified -> !tokenDenyList.isDenied(verified.getId())))
+        .toList();
+  }
+
+  private void verify(List<String> tokens, List<Integer> chunk,
+                      Optional<DecodedJWT>[] results) {
+    for (var i : chunk) {
+      results[i] = jwtTokenProvider.toDecodedJWT(tokens.get(i));
+    }
+  }
+}
@@ -1,6 +1,8 @@
 package com.example.users.api.security;
 
 import com.example.users.api.repository.UserRepository;
+import com.example.users.api.service.lookup.UserLookup;
+import com.example.users.api.service.username.UsernameFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,12 +14,19 @@ import org.springframework.stereotype.Service;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
   private final UserRepository userRepository;
+  private final UsernameFilter usernameFilter;
+  private final UserLookup userLookup;
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    var user = userRepository.findByUsername(username).orElseThrow(
-        () -> new UsernameNotFoundException("User with username %s not found".formatted(username))
-    );
+    if (!usernameFilter.mightContain(username)) {
+      throw new UsernameNotFoundException("User with username %s not found".formatted(username));
+    }
+    var user = userLookup.findByUsername(username)
+        // A replica may not have replayed a sign-up that happened moments ago
+        .or(() -> userRepository.findByUsername(username))
+        .orElseThrow(() -> new UsernameNotFoundException(
+            "User with username %s not found".formatted(username)));
     return new UserDetailsImpl(user);
   }
 }
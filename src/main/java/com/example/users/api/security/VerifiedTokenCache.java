@@ -0,0 +1,65 @@
+package com.example.users.api.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tokens whose signature has already been verified, kept until they expire but no longer than the
+ * maximum age, so a token presented again skips signature verification. Keyed by the whole token,
+ * so a hit is exactly the token that was verified.
+ */
+@Component
+public class VerifiedTokenCache {
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final int maxEntries;
+  private final long maxAge;
+
+  public VerifiedTokenCache(@Value("${jwt.verified-cache.max-entries}") int maxEntries,
+                            @Value("${jwt.verified-cache.max-age}") Duration maxAge) {
+    this.maxEntries = maxEntries;
+    this.maxAge = maxAge.toNanos();
+  }
+
+  public Optional<DecodedJWT> get(String token) {
+    var entry = entries.get(token);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    if (entry.expiresAt - System.nanoTime() <= 0) {
+      entries.remove(token, entry);
+      return Optional.empty();
+    }
+    return Optional.of(entry.jwt);
+  }
+
+  public void put(String token, DecodedJWT jwt) {
+    if (maxEntries <= 0 || jwt.getExpiresAtAsInstant() == null) {
+      return;
+    }
+    var untilExpiry = Duration.between(Instant.now(), jwt.getExpiresAtAsInstant()).toNanos();
+    var ttl = Math.min(maxAge, untilExpiry);
+    if (ttl <= 0) {
+      return;
+    }
+    var now = System.nanoTime();
+    if (entries.size() >= maxEntries) {
+      entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+      if (entries.size() >= maxEntries) {
+        entries.clear();
+      }
+    }
+    entries.put(token, new Entry(jwt, now + ttl));
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private record Entry(DecodedJWT jwt, long expiresAt) {
+  }
+}
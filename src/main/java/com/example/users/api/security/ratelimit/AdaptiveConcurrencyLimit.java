@@ -0,0 +1,115 @@
+package com.example.users.api.security.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows latency, after the gradient algorithm of Netflix's
+ * concurrency-limits. Every window compares the average response time with a long-term baseline:
+ * when requests start queueing the ratio drops below one and shrinks the limit, and the square
+ * root of the limit is always added on top so it keeps probing for more.
+ */
+public class AdaptiveConcurrencyLimit {
+  private static final int MIN_WINDOW_SAMPLES = 10;
+  private static final double BASELINE_WEIGHT = 0.05;
+  private static final double MIN_GRADIENT = 0.5;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long window;
+  private final double smoothing;
+  private final double rttTolerance;
+  private final LongSupplier nanoClock;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile double limit;
+  // Guarded by this
+  private long windowStart;
+  private long rttSum;
+  private int samples;
+  private int maxInFlight;
+  private double baselineRtt;
+
+  public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration window,
+                                  double smoothing, double rttTolerance, LongSupplier nanoClock) {
+    if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+      throw new IllegalArgumentException(
+          "Concurrency limits must satisfy 1 <= min <= initial <= max");
+    }
+    if (smoothing <= 0 || smoothing > 1 || rttTolerance < 1) {
+      throw new IllegalArgumentException(
+          "Smoothing must be in (0, 1] and the RTT tolerance at least 1");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.window = window.toNanos();
+    this.smoothing = smoothing;
+    this.rttTolerance = rttTolerance;
+    this.nanoClock = nanoClock;
+    this.limit = initialLimit;
+    this.windowStart = nanoClock.getAsLong();
+  }
+
+  public boolean tryAcquire() {
+    while (true) {
+      var current = inFlight.get();
+      if (current >= (int) limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Releases a permit. Failed requests don't count as samples, because a fast failure would read
+   * as spare capacity exactly when the database is in trouble.
+   */
+  public void release(long rttNanos, boolean sample) {
+    var current = inFlight.getAndDecrement();
+    if (sample) {
+      onSample(rttNanos, current);
+    }
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void onSample(long rttNanos, int currentInFlight) {
+    rttSum += rttNanos;
+    samples++;
+    maxInFlight = Math.max(maxInFlight, currentInFlight);
+    var now = nanoClock.getAsLong();
+    if (now - windowStart < window || samples < MIN_WINDOW_SAMPLES) {
+      return;
+    }
+    update((double) rttSum / samples);
+    windowStart = now;
+    rttSum = 0;
+    samples = 0;
+    maxInFlight = 0;
+  }
+
+  private void update(double rtt) {
+    baselineRtt = baselineRtt == 0 ? rtt : baselineRtt + (rtt - baselineRtt) * BASELINE_WEIGHT;
+    if (baselineRtt > rtt * 2) {
+      // Latency dropped for good, so the baseline catches up faster than the average would
+      baselineRtt *= 0.95;
+    }
+    var current = limit;
+    if (maxInFlight < current / 2) {
+      // A window that never came near the limit says nothing about it
+      return;
+    }
+    var gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * baselineRtt / rtt));
+    var target = current * gradient + Math.sqrt(current);
+    var next = current * (1 - smoothing) + target * smoothing;
+    limit = Math.max(minLimit, Math.min(maxLimit, next));
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.users.api.security.ratelimit;
+
+import com.example.users.api.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Sheds requests above an {@link AdaptiveConcurrencyLimit} with an immediate 503, before they
+ * authenticate or wait for a database connection. Sign-in and sign-up, reads and writes have
+ * limits of their own, so slow writes don't starve reads and a login storm doesn't starve either.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+  private static final String METRIC = "http.concurrency.limit";
+  private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+  private final boolean enabled;
+  private final HandlerExceptionResolver exceptionResolver;
+  private final Map<Partition, AdaptiveConcurrencyLimit> limits = new EnumMap<>(Partition.class);
+  private final Map<Partition, Counter> rejected = new EnumMap<>(Partition.class);
+
+  public ConcurrencyLimitFilter(
+      @Value("${concurrency-limit.enabled}") boolean enabled,
+      @Value("${concurrency-limit.initial-limit}") int initialLimit,
+      @Value("${concurrency-limit.min-limit}") int minLimit,
+      @Value("${concurrency-limit.max-limit}") int maxLimit,
+      @Value("${concurrency-limit.window}") Duration window,
+      @Value("${concurrency-limit.smoothing}") double smoothing,
+      @Value("${concurrency-limit.rtt-tolerance}") double rttTolerance,
+      @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.exceptionResolver = exceptionResolver;
+    for (var partition : Partition.values()) {
+      var limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, window,
+          smoothing, rttTolerance, System::nanoTime);
+      limits.put(partition, limit);
+      var tag = partition.name().toLowerCase(Locale.ROOT);
+      Gauge.builder(METRIC, limit, AdaptiveConcurrencyLimit::getLimit)
+          .tag("partition", tag)
+          .register(meterRegistry);
+      Gauge.builder(METRIC + ".in.flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+          .tag("partition", tag)
+          .register(meterRegistry);
+      rejected.put(partition, Counter.builder(METRIC + ".rejected")
+          .tag("partition", tag)
+          .register(meterRegistry));
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    var path = request.getServletPath();
+    // Health checks must answer under load, and an export's duration depends on its range
+    return !enabled || path.startsWith("/actuator") || path.equals("/users/export");
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                  @NonNull HttpServletResponse response,
+                                  @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    var partition = Partition.of(request);
+    var limit = limits.get(partition);
+    if (!limit.tryAcquire()) {
+      rejected.get(partition).increment();
+      exceptionResolver.resolveException(request, response, null,
+          new ServiceUnavailableException("Server is overloaded, try again later", RETRY_AFTER));
+      return;
+    }
+    var start = System.nanoTime();
+    var succeeded = false;
+    try {
+      filterChain.doFilter(request, response);
+      succeeded = response.getStatus() < HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    } finally {
+      limit.release(System.nanoTime() - start, succeeded);
+    }
+  }
+
+  enum Partition {
+    AUTH,
+    READ,
+    WRITE;
+
+    static Partition of(HttpServletRequest request) {
+      if (request.getServletPath().startsWith("/auth/")) {
+        return AUTH;
+      }
+      var method = request.getMethod();
+      return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ? READ : WRITE;
+    }
+  }
+}
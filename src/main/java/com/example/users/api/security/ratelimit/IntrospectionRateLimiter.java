@@ -0,0 +1,52 @@
+package com.example.users.api.security.ratelimit;
+
+import com.example.users.api.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the introspection requests of each gateway id from {@code jwt.introspection.gateway-keys}.
+ * Every request may carry up to {@code jwt.introspection.max-tokens} signatures to verify, so the
+ * cap bounds the CPU one gateway can take without starving the others.
+ */
+@Component
+public class IntrospectionRateLimiter {
+  private static final String METRIC = "auth.introspection.rate.limit";
+  private static final int MAX_GATEWAYS = 1024;
+
+  private final boolean enabled;
+  private final TokenBucketLimiter limiter;
+  private final Counter allowed;
+  private final Counter rejected;
+
+  public IntrospectionRateLimiter(
+      @Value("${rate-limit.introspection.enabled}") boolean enabled,
+      @Value("${rate-limit.introspection.capacity}") int capacity,
+      @Value("${rate-limit.introspection.permits-per-minute}") int permitsPerMinute,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.limiter = new TokenBucketLimiter(capacity, permitsPerMinute, MAX_GATEWAYS, 1,
+        System::nanoTime);
+    this.allowed = Counter.builder(METRIC)
+        .tag("outcome", "allowed")
+        .register(meterRegistry);
+    this.rejected = Counter.builder(METRIC)
+        .tag("outcome", "rejected")
+        .register(meterRegistry);
+  }
+
+  public void acquire(String gatewayId) {
+    if (!enabled) {
+      return;
+    }
+    var wait = limiter.tryAcquire(gatewayId);
+    if (!wait.isZero()) {
+      rejected.increment();
+      throw new TooManyRequestsException("Too many introspection requests, try again later",
+          wait);
+    }
+    allowed.increment();
+  }
+}
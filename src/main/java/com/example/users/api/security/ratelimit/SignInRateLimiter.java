@@ -0,0 +1,81 @@
+package com.example.users.api.security.ratelimit;
+
+import com.example.users.api.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SignInRateLimiter {
+  private static final String METRIC = "auth.signin.rate.limit";
+
+  private final boolean enabled;
+  private final boolean clientEnabled;
+  private final TokenBucketLimiter clientLimiter;
+  private final TokenBucketLimiter usernameLimiter;
+  private final Counter allowed;
+  private final Counter clientRejected;
+  private final Counter usernameRejected;
+
+  public SignInRateLimiter(
+      @Value("${rate-limit.sign-in.enabled}") boolean enabled,
+      @Value("${rate-limit.sign-in.client.enabled}") boolean clientEnabled,
+      @Value("${rate-limit.sign-in.client.capacity}") int clientCapacity,
+      @Value("${rate-limit.sign-in.client.permits-per-minute}") int clientPermitsPerMinute,
+      @Value("${rate-limit.sign-in.username.capacity}") int usernameCapacity,
+      @Value("${rate-limit.sign-in.username.permits-per-minute}") int usernamePermitsPerMinute,
+      @Value("${rate-limit.sign-in.max-entries}") int maxEntries,
+      @Value("${rate-limit.sign-in.stripes}") int stripes,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.clientEnabled = clientEnabled;
+    this.clientLimiter = new TokenBucketLimiter(clientCapacity, clientPermitsPerMinute,
+        maxEntries, stripes, System::nanoTime);
+    this.usernameLimiter = new TokenBucketLimiter(usernameCapacity, usernamePermitsPerMinute,
+        maxEntries, stripes, System::nanoTime);
+    this.allowed = Counter.builder(METRIC)
+        .tag("outcome", "allowed")
+        .register(meterRegistry);
+    this.clientRejected = Counter.builder(METRIC)
+        .tag("outcome", "rejected")
+        .tag("key", "client")
+        .register(meterRegistry);
+    this.usernameRejected = Counter.builder(METRIC)
+        .tag("outcome", "rejected")
+        .tag("key", "username")
+        .register(meterRegistry);
+    Gauge.builder(METRIC + ".entries", clientLimiter, TokenBucketLimiter::size)
+        .tag("key", "client")
+        .register(meterRegistry);
+    Gauge.builder(METRIC + ".entries", usernameLimiter, TokenBucketLimiter::size)
+        .tag("key", "username")
+        .register(meterRegistry);
+  }
+
+  public void acquire(String clientAddress, String username) {
+    if (!enabled) {
+      return;
+    }
+    if (clientEnabled) {
+      var clientWait = clientLimiter.tryAcquire(clientAddress);
+      if (!clientWait.isZero()) {
+        clientRejected.increment();
+        throw tooManyRequests(clientWait);
+      }
+    }
+    var usernameWait = usernameLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+    if (!usernameWait.isZero()) {
+      usernameRejected.increment();
+      throw tooManyRequests(usernameWait);
+    }
+    allowed.increment();
+  }
+
+  private TooManyRequestsException tooManyRequests(Duration wait) {
+    return new TooManyRequestsException("Too many sign-in attempts, try again later", wait);
+  }
+}
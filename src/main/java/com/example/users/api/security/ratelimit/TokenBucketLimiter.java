@@ -0,0 +1,100 @@
+package com.example.users.api.security.ratelimit;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets stored as one "theoretical arrival time" per key (GCRA), so a permit costs a
+ * single CAS. Only fully refilled buckets, which carry no state, are evicted. Once a stripe is
+ * full of live buckets, new keys share the stripe's overflow bucket until some of them refill.
+ */
+public class TokenBucketLimiter {
+  private final long emissionInterval;
+  private final long burstTolerance;
+  private final int maxEntriesPerStripe;
+  private final LongSupplier nanoClock;
+  private final Stripe[] stripes;
+
+  public TokenBucketLimiter(int capacity, int permitsPerMinute, int maxEntries, int stripeCount,
+                            LongSupplier nanoClock) {
+    if (capacity < 1 || permitsPerMinute < 1 || maxEntries < 1 || stripeCount < 1) {
+      throw new IllegalArgumentException("Rate limiter settings must be positive");
+    }
+    var stripesSize = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+    this.emissionInterval = Duration.ofMinutes(1).toNanos() / permitsPerMinute;
+    this.burstTolerance = emissionInterval * (capacity - 1);
+    this.maxEntriesPerStripe = Math.max(1, maxEntries / stripesSize);
+    this.nanoClock = nanoClock;
+    this.stripes = new Stripe[stripesSize];
+    Arrays.setAll(stripes, i -> new Stripe());
+  }
+
+  public Duration tryAcquire(String key) {
+    var now = nanoClock.getAsLong();
+    var stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+    var bucket = stripe.buckets.get(key);
+    if (bucket == null) {
+      bucket = stripe.register(key, now);
+    }
+    while (true) {
+      var arrival = bucket.get();
+      var base = Math.max(arrival, now);
+      var wait = base - burstTolerance - now;
+      if (wait > 0) {
+        return Duration.ofNanos(wait);
+      }
+      if (bucket.compareAndSet(arrival, base + emissionInterval)) {
+        return Duration.ZERO;
+      }
+    }
+  }
+
+  public int size() {
+    var size = 0;
+    for (var stripe : stripes) {
+      size += stripe.buckets.size();
+    }
+    return size;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private final class Stripe {
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong(nanoClock.getAsLong());
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private long lastEviction = nanoClock.getAsLong() - emissionInterval;
+
+    private AtomicLong register(String key, long now) {
+      if (buckets.size() >= maxEntriesPerStripe) {
+        evictRefilled(now);
+        if (buckets.size() >= maxEntriesPerStripe) {
+          // Dropping a live bucket would reset its limit, so spraying keys can't clear them
+          return overflow;
+        }
+      }
+      return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private void evictRefilled(long now) {
+      if (!evictionLock.tryLock()) {
+        return;
+      }
+      try {
+        // A stripe full of live buckets is scanned once per interval, not for every new key
+        if (now - lastEviction >= emissionInterval) {
+          lastEviction = now;
+          buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.example.users.api.service;
+
+import com.example.users.api.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hard deletes soft deleted users in bounded batches, each in its own transaction, so index and
+ * vacuum work is spread out instead of landing on the request that deleted the account.
+ */
+@Slf4j
+@Component
+public class UserPurger {
+  private final UserRepository userRepository;
+  private final int batchSize;
+  private final int maxBatches;
+
+  public UserPurger(UserRepository userRepository,
+                    @Value("${user-deletion.purge-batch-size}") int batchSize,
+                    @Value("${user-deletion.purge-max-batches}") int maxBatches) {
+    this.userRepository = userRepository;
+    this.batchSize = batchSize;
+    this.maxBatches = maxBatches;
+  }
+
+  @Scheduled(fixedDelayString = "${user-deletion.purge-interval}")
+  public void purge() {
+    var total = 0;
+    for (var batch = 0; batch < maxBatches; batch++) {
+      var purged = userRepository.purgeDeleted(batchSize);
+      total += purged;
+      if (purged < batchSize) {
+        break;
+      }
+    }
+    if (total > 0) {
+      log.info("Purged {} deleted users", total);
+    }
+  }
+}
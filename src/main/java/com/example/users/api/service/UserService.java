@@ -9,6 +9,8 @@ import java.util.Optional;
 public interface UserService {
   User create(User user);
 
+  User createDeferred(User user);
+
   Optional<DecodedJWT> signIn(String username, String password);
 
   User update(User updatedUser);
@@ -17,6 +19,8 @@ public interface UserService {
 
   List<User> findAllByBirthDateRange(LocalDate birthDateFrom, LocalDate birthDateTo);
 
+  List<User> findUpcomingBirthdays(int days, Integer afterMonthDay, Long afterId, int limit);
+
   Optional<User> findByUsername(String username);
 
   void deleteByUsername(String username);
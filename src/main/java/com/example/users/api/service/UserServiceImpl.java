@@ -2,17 +2,31 @@ package com.example.users.api.service;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserIdGenerator;
+import com.example.users.api.domain.UserStatus;
+import com.example.users.api.exception.AccountNotActivatedException;
+import com.example.users.api.exception.InvalidCredentialsException;
 import com.example.users.api.exception.UserAlreadyExistsException;
 import com.example.users.api.repository.UserRepository;
 import com.example.users.api.security.JwtTokenProvider;
+import com.example.users.api.service.directory.UserDirectory;
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import com.example.users.api.service.lookup.UserLookup;
+import com.example.users.api.service.username.UsernameFilter;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
@@ -21,20 +35,37 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+  private static final int MAX_UPCOMING_BIRTHDAYS_DAYS = 364;
+  private static final int MAX_PAGE_SIZE = 100;
 
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
   private final JwtTokenProvider jwtTokenProvider;
+  @Qualifier("signUpExecutor")
+  private final TaskExecutor signUpExecutor;
+  private final UsernameFilter usernameFilter;
+  private final UserLookup userLookup;
+  private final UserDirectory userDirectory;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Getter
   @Setter
   @Value("${min.user.age}")
   private int minAge;
 
+  @Setter
+  @Value("${user-deletion.soft-delete.enabled}")
+  private boolean softDelete;
+
+  @Setter
+  @Value("${sharding.enabled}")
+  private boolean sharded;
+
   @Override
   @Transactional
   public User create(User user) {
-    if (userRepository.existsByUsername(user.getUsername())) {
+    if (usernameFilter.mightContain(user.getUsername())
+        && userRepository.existsByUsernameIncludingDeleted(user.getUsername())) {
       throw new UserAlreadyExistsException(
           "Username %s is already in use".formatted(user.getUsername()));
     }
@@ -43,13 +74,44 @@ public class UserServiceImpl implements UserService {
           "Min age must be equal or higher than %d".formatted(minAge));
     }
     user.setPassword(passwordEncoder.encode(user.getPassword()));
-    return userRepository.save(user);
+    User created;
+    try {
+      // Sequence ids don't insert on save, so flush to hit the unique index here
+      created = userRepository.saveAndFlush(user);
+    } catch (DataIntegrityViolationException exception) {
+      throw new UserAlreadyExistsException(
+          "Username %s is already in use".formatted(user.getUsername()));
+    }
+    eventPublisher.publishEvent(new UserCreatedEvent(created));
+    return created;
+  }
+
+  @Override
+  public User createDeferred(User user) {
+    if (isAgeNotAllowed(user.getBirthDate())) {
+      throw new IllegalArgumentException(
+          "Min age must be equal or higher than %d".formatted(minAge));
+    }
+    var rawPassword = user.getPassword();
+    user.setPassword(null);
+    user.setStatus(UserStatus.PENDING);
+    User reserved;
+    try {
+      reserved = userRepository.saveAndFlush(user);
+    } catch (DataIntegrityViolationException exception) {
+      throw new UserAlreadyExistsException(
+          "Username %s is already in use".formatted(user.getUsername()));
+    }
+    eventPublisher.publishEvent(new UserCreatedEvent(reserved));
+    signUpExecutor.execute(() ->
+        userRepository.activate(reserved.getId(), passwordEncoder.encode(rawPassword)));
+    return reserved;
   }
 
   @Override
   public Optional<DecodedJWT> signIn(String username, String password) {
     if (!existsByCredentials(username, password)) {
-      throw new BadCredentialsException("Invalid username/password supplied");
+      throw new InvalidCredentialsException("Invalid username/password supplied");
     }
     return jwtTokenProvider.toDecodedJWT(jwtTokenProvider.generateToken(username));
   }
@@ -57,6 +119,14 @@ public class UserServiceImpl implements UserService {
   @Override
   @Transactional(isolation = Isolation.REPEATABLE_READ)
   public User update(User updatedUser) {
+    // Checked before any lookup, which would pin the transaction to the new username's shard
+    if (sharded && updatedUser.getId() != null
+        && UserIdGenerator.bucketOf(updatedUser.getUsername())
+        != UserIdGenerator.bucketOf(updatedUser.getId())) {
+      throw new IllegalArgumentException(
+          "Changing the username to %s is not supported while users are sharded"
+              .formatted(updatedUser.getUsername()));
+    }
     if (isUsernameInUse(updatedUser)) {
       throw new UserAlreadyExistsException(
           "Username %s is already in use".formatted(updatedUser.getUsername()));
@@ -65,13 +135,26 @@ public class UserServiceImpl implements UserService {
       throw new IllegalArgumentException(
           "Min age must be equal or higher than %d".formatted(minAge));
     }
+    var previous = userRepository.findById(updatedUser.getId());
+    var previousUsername = previous.map(User::getUsername).orElse(updatedUser.getUsername());
+    var previousBirthDate = previous.map(User::getBirthDate).orElse(null);
     updatedUser.setPassword(passwordEncoder.encode(updatedUser.getPassword()));
-    return userRepository.save(updatedUser);
+    var saved = userRepository.save(updatedUser);
+    eventPublisher.publishEvent(new UserUpdatedEvent(previousUsername, previousBirthDate, saved));
+    return saved;
   }
 
   @Override
   public Optional<User> findById(Long id) {
-    return userRepository.findById(id);
+    if (userDirectory.isLoaded()) {
+      var user = userDirectory.findById(id);
+      // A miss may be a user created on another node since the last refresh, and deferred
+      // sign-ups are activated without an event, so both are read from the database
+      if (user.filter(found -> found.getStatus() != UserStatus.PENDING).isPresent()) {
+        return user;
+      }
+    }
+    return userLookup.findById(id);
   }
 
   @Override
@@ -80,9 +163,61 @@ public class UserServiceImpl implements UserService {
       throw new IllegalArgumentException(
           "Date %s is not later than %s".formatted(birthDateTo, birthDateFrom));
     }
+    if (userDirectory.isLoaded()) {
+      return userDirectory.findAllByBirthDateBetween(birthDateFrom, birthDateTo);
+    }
+    // No transaction around it, so answers from memory don't take a connection; the repository
+    // method opens a read-only one
     return userRepository.findAllByBirthDateBetween(birthDateFrom, birthDateTo);
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public List<User> findUpcomingBirthdays(int days, Integer afterMonthDay, Long afterId,
+                                          int limit) {
+    return findUpcomingBirthdays(LocalDate.now(), days, afterMonthDay, afterId, limit);
+  }
+
+  List<User> findUpcomingBirthdays(LocalDate today, int days, Integer afterMonthDay, Long afterId,
+                                   int limit) {
+    if (days < 0 || days > MAX_UPCOMING_BIRTHDAYS_DAYS) {
+      throw new IllegalArgumentException(
+          "Days must be between 0 and %d".formatted(MAX_UPCOMING_BIRTHDAYS_DAYS));
+    }
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and %d".formatted(MAX_PAGE_SIZE));
+    }
+    if ((afterMonthDay == null) != (afterId == null)) {
+      throw new IllegalArgumentException("Both or none of the cursor values must be supplied");
+    }
+    var end = today.plusDays(days);
+    var from = toMonthDay(today);
+    var to = toMonthDay(end);
+    if (!end.isLeapYear() && to == 228) {
+      // Feb 29 birthdays are celebrated on Feb 28 in common years
+      to = 229;
+    }
+    var cursorMonthDay = afterMonthDay == null ? 0 : afterMonthDay;
+    var cursorId = afterId == null ? 0L : afterId;
+    if (from <= to) {
+      return userRepository.findAllByBirthMonthDayBetween(from, to, cursorMonthDay, cursorId,
+          limit);
+    }
+    // The window wraps around the new year, so it is two ranges read one after another
+    var users = new ArrayList<User>(limit);
+    var cursorInNextYear = cursorMonthDay != 0 && cursorMonthDay < from;
+    if (!cursorInNextYear) {
+      users.addAll(userRepository.findAllByBirthMonthDayBetween(from, 1231, cursorMonthDay,
+          cursorId, limit));
+    }
+    if (users.size() < limit) {
+      users.addAll(userRepository.findAllByBirthMonthDayBetween(101, to,
+          cursorInNextYear ? cursorMonthDay : 0, cursorInNextYear ? cursorId : 0L,
+          limit - users.size()));
+    }
+    return users;
+  }
+
   @Override
   public Optional<User> findByUsername(String username) {
     return userRepository.findByUsername(username);
@@ -91,12 +226,25 @@ public class UserServiceImpl implements UserService {
   @Override
   @Transactional
   public void deleteByUsername(String username) {
-    userRepository.deleteByUsername(username);
+    var deleted = softDelete
+        ? userRepository.softDeleteByUsername(username)
+        : userRepository.deleteByUsername(username);
+    deleted.forEach(user -> eventPublisher.publishEvent(
+        new UserDeletedEvent(user.getId(), user.getUsername(), user.getBirthDate())));
   }
 
   private boolean isUsernameInUse(User user) {
+    if (!usernameFilter.mightContain(user.getUsername())) {
+      return false;
+    }
     return userRepository.findByUsername(user.getUsername())
-        .filter(found -> !found.getId().equals(user.getId())).isPresent();
+        .map(found -> !found.getId().equals(user.getId()))
+        // A soft-deleted row is hidden from findByUsername but still holds the username
+        .orElseGet(() -> userRepository.existsByUsernameIncludingDeleted(user.getUsername()));
+  }
+
+  private static int toMonthDay(LocalDate date) {
+    return date.getMonthValue() * 100 + date.getDayOfMonth();
   }
 
   private boolean isAgeNotAllowed(LocalDate birthDate) {
@@ -104,8 +252,15 @@ public class UserServiceImpl implements UserService {
   }
 
   private Optional<User> findByCredentials(String username, String password) {
+    if (!usernameFilter.mightContain(username)) {
+      return Optional.empty();
+    }
     var maybeUser = userRepository.findByUsername(username);
     if (maybeUser.isPresent()) {
+      if (maybeUser.get().getStatus() == UserStatus.PENDING) {
+        throw new AccountNotActivatedException(
+            "Account %s is not activated yet, try again later".formatted(username));
+      }
       if (passwordEncoder.matches(password, maybeUser.get().getPassword())) {
         return maybeUser;
       }
@@ -0,0 +1,54 @@
+package com.example.users.api.service.changes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Position in the change feed of every database: the transaction id that last changed a row and
+ * the row's id. Written as {@code xid.id} per database, joined with {@code ~}.
+ */
+record ChangeCursor(List<Position> positions) {
+  private static final String SEPARATOR = "~";
+
+  static ChangeCursor start(int databases) {
+    return new ChangeCursor(Collections.nCopies(databases, new Position(0, 0)));
+  }
+
+  static ChangeCursor parse(String cursor, int databases) {
+    if (cursor == null || cursor.isEmpty()) {
+      return start(databases);
+    }
+    try {
+      var positions = Arrays.stream(cursor.split(SEPARATOR, -1))
+          .map(position -> {
+            var dot = position.indexOf('.');
+            return new Position(Long.parseLong(position.substring(0, dot)),
+                Long.parseLong(position.substring(dot + 1)));
+          })
+          .toList();
+      if (positions.size() == databases) {
+        return new ChangeCursor(positions);
+      }
+    } catch (RuntimeException ignored) {
+      // Reported below
+    }
+    throw new IllegalArgumentException("Invalid changes cursor: " + cursor);
+  }
+
+  @Override
+  public String toString() {
+    return positions.stream()
+        .map(position -> position.xid() + "." + position.id())
+        .collect(Collectors.joining(SEPARATOR));
+  }
+
+  record Position(long xid, long id) {
+    Position {
+      if (xid < 0 || id < 0) {
+        throw new IllegalArgumentException("Negative position");
+      }
+    }
+  }
+}
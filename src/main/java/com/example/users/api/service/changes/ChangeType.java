@@ -0,0 +1,6 @@
+package com.example.users.api.service.changes;
+
+public enum ChangeType {
+  DELETED,
+  UPSERTED
+}
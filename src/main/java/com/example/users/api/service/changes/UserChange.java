@@ -0,0 +1,11 @@
+package com.example.users.api.service.changes;
+
+import com.example.users.api.domain.User;
+import java.time.Instant;
+
+/**
+ * A created or updated user, or the id of a deleted one with a null {@code user}.
+ */
+public record UserChange(ChangeType type, long id, User user, Instant createdAt,
+                         Instant updatedAt, Instant deletedAt) {
+}
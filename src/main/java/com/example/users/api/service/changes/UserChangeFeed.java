@@ -0,0 +1,180 @@
+package com.example.users.api.service.changes;
+
+import static com.example.users.api.domain.UserIdGenerator.BUCKETS;
+
+import com.example.users.api.config.sharding.ShardMap;
+import com.example.users.api.config.sharding.ShardRoutingDataSource;
+import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserStatus;
+import com.example.users.api.service.changes.ChangeCursor.Position;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Users created, updated or deleted after a cursor, for consumers that mirror the directory.
+ *
+ * <p>Every write stamps the row with the id of its transaction and deletes leave a tombstone, so
+ * the feed is a range scan on {@code (changed_xid, id)}. Only transactions older than the oldest
+ * one still running are returned, as a running one could still commit below the cursor.
+ */
+@Slf4j
+@Component
+public class UserChangeFeed {
+  private static final String CHANGES = """
+      select * from (
+          (select u.changed_xid, u.id, u.first_name, u.last_name, u.username, u.email,
+              u.birth_date, u.address, u.phone_number, u.status, u.created_at, u.updated_at,
+              u.deleted_at
+          from users u
+          where (u.changed_xid, u.id) > (?::text::xid8, ?)
+              and u.changed_xid < pg_snapshot_xmin(pg_current_snapshot()) %1$s
+          order by u.changed_xid, u.id
+          limit ?)
+          union all
+          (select t.changed_xid, t.id, null, null, null, null, null, null, null, null, null,
+              null, t.deleted_at
+          from user_tombstones t
+          where (t.changed_xid, t.id) > (?::text::xid8, ?)
+              and t.changed_xid < pg_snapshot_xmin(pg_current_snapshot()) %2$s
+              -- Deleted and inserted again in the same transaction, e.g. moved between shards
+              and not exists (
+                  select 1 from users u where u.id = t.id and u.changed_xid = t.changed_xid)
+          order by t.changed_xid, t.id
+          limit ?)) c
+      order by c.changed_xid, c.id
+      limit ?""";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readOnlyTransaction;
+  private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+  private final ObjectProvider<ShardMap> shardMap;
+  private final int maxPageSize;
+  private final Duration tombstoneRetention;
+
+  public UserChangeFeed(DataSource dataSource, PlatformTransactionManager transactionManager,
+                        ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                        ObjectProvider<ShardMap> shardMap,
+                        @Value("${user-changes.max-page-size}") int maxPageSize,
+                        @Value("${user-changes.tombstone-retention}")
+                        Duration tombstoneRetention) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.shardRoutingDataSource = shardRoutingDataSource;
+    this.shardMap = shardMap;
+    this.maxPageSize = maxPageSize;
+    this.tombstoneRetention = tombstoneRetention;
+  }
+
+  /**
+   * Returns up to {@code limit} changes after the cursor, which is empty to start from scratch,
+   * and the cursor to continue from.
+   */
+  public UserChangePage changesSince(String cursor, int limit) {
+    if (limit < 1 || limit > maxPageSize) {
+      throw new IllegalArgumentException("Limit must be between 1 and %d".formatted(maxPageSize));
+    }
+    var databases = databases();
+    var positions = new ArrayList<>(ChangeCursor.parse(cursor, databases.size()).positions());
+    var changes = new ArrayList<UserChange>();
+    for (var database = 0; database < databases.size() && changes.size() < limit; database++) {
+      var rows = query(databases.get(database), database, positions.get(database),
+          limit - changes.size());
+      if (!rows.isEmpty()) {
+        var last = rows.get(rows.size() - 1);
+        positions.set(database, new Position(last.xid(), last.change().id()));
+      }
+      rows.forEach(row -> changes.add(row.change()));
+    }
+    return new UserChangePage(changes, new ChangeCursor(positions).toString());
+  }
+
+  @Scheduled(fixedDelayString = "${user-changes.tombstone-purge-interval}")
+  public void purgeTombstones() {
+    var before = Timestamp.from(Instant.now().minus(tombstoneRetention));
+    var purged = databases().stream()
+        .mapToInt(database -> database.update(
+            "delete from user_tombstones where deleted_at < ?", before))
+        .sum();
+    if (purged > 0) {
+      log.info("Purged {} user tombstones", purged);
+    }
+  }
+
+  private List<Row> query(JdbcTemplate database, int index, Position position, int limit) {
+    var routing = shardRoutingDataSource.getIfAvailable();
+    if (routing == null) {
+      // In a read-only transaction so that a read replica can serve it
+      return readOnlyTransaction.execute(status -> database.query(CHANGES.formatted("", ""),
+          UserChangeFeed::row, position.xid(), position.id(), limit, position.xid(),
+          position.id(), limit, limit));
+    }
+    // Shards also hold copies of the buckets being moved to them
+    var owned = ownedBuckets(index);
+    return database.query(CHANGES.formatted(
+            "and (u.id & %d) = any(?)".formatted(BUCKETS - 1),
+            "and (t.id & %d) = any(?)".formatted(BUCKETS - 1)),
+        UserChangeFeed::row, position.xid(), position.id(), owned, limit, position.xid(),
+        position.id(), owned, limit, limit);
+  }
+
+  private List<JdbcTemplate> databases() {
+    var routing = shardRoutingDataSource.getIfAvailable();
+    return routing == null
+        ? List.of(jdbcTemplate)
+        : routing.shardDataSources().stream().map(JdbcTemplate::new).toList();
+  }
+
+  private Integer[] ownedBuckets(int shard) {
+    var map = shardMap.getObject();
+    return IntStream.range(0, BUCKETS)
+        .filter(bucket -> map.shardOf(bucket) == shard)
+        .boxed()
+        .toArray(Integer[]::new);
+  }
+
+  private static Row row(ResultSet resultSet, int rowNum) throws SQLException {
+    var id = resultSet.getLong("id");
+    var deletedAt = instant(resultSet, "deleted_at");
+    User user = null;
+    if (deletedAt == null) {
+      user = new User();
+      user.setId(id);
+      user.setFirstName(resultSet.getString("first_name"));
+      user.setLastName(resultSet.getString("last_name"));
+      user.setUsername(resultSet.getString("username"));
+      user.setEmail(resultSet.getString("email"));
+      user.setBirthDate(resultSet.getObject("birth_date", LocalDate.class));
+      user.setAddress(resultSet.getString("address"));
+      user.setPhoneNumber(resultSet.getString("phone_number"));
+      user.setStatus(UserStatus.valueOf(resultSet.getString("status")));
+    }
+    var change = new UserChange(deletedAt == null ? ChangeType.UPSERTED : ChangeType.DELETED, id,
+        user, instant(resultSet, "created_at"), instant(resultSet, "updated_at"), deletedAt);
+    return new Row(Long.parseLong(resultSet.getString("changed_xid")), change);
+  }
+
+  private static Instant instant(ResultSet resultSet, String column) throws SQLException {
+    var timestamp = resultSet.getTimestamp(column);
+    return timestamp == null ? null : timestamp.toInstant();
+  }
+
+  private record Row(long xid, UserChange change) {
+  }
+}
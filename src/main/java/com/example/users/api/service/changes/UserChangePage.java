@@ -0,0 +1,6 @@
+package com.example.users.api.service.changes;
+
+import java.util.List;
+
+public record UserChangePage(List<UserChange> changes, String next) {
+}
@@ -0,0 +1,98 @@
+package com.example.users.api.service.directory;
+
+/**
+ * Open-addressing map from positive longs to ints, two flat arrays instead of a node per entry.
+ * Deletes shift the following entries back, so there are no tombstones to clean up.
+ */
+final class LongIntHashMap {
+  private static final long EMPTY = 0;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+
+  LongIntHashMap() {
+    keys = new long[16];
+    values = new int[16];
+    mask = keys.length - 1;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int capacity() {
+    return keys.length;
+  }
+
+  /**
+   * Returns the value of the key, or -1 without one.
+   */
+  int get(long key) {
+    for (var i = home(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return values[i];
+      }
+    }
+    return -1;
+  }
+
+  void put(long key, int value) {
+    if (key <= EMPTY) {
+      throw new IllegalArgumentException("Keys must be positive");
+    }
+    if (size * 2 >= keys.length) {
+      resize();
+    }
+    var i = home(key);
+    while (keys[i] != EMPTY && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    if (keys[i] == EMPTY) {
+      keys[i] = key;
+      size++;
+    }
+    values[i] = value;
+  }
+
+  void remove(long key) {
+    var i = home(key);
+    while (keys[i] != key) {
+      if (keys[i] == EMPTY) {
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    // Moves back every following entry of the run that may no longer be reachable from its home
+    for (var j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+      var home = home(keys[j]);
+      var reachable = i <= j ? i < home && home <= j : i < home || home <= j;
+      if (!reachable) {
+        keys[i] = keys[j];
+        values[i] = values[j];
+        i = j;
+      }
+    }
+    keys[i] = EMPTY;
+    size--;
+  }
+
+  private int home(long key) {
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+  }
+
+  private void resize() {
+    var oldKeys = keys;
+    var oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new int[oldKeys.length * 2];
+    mask = keys.length - 1;
+    size = 0;
+    for (var i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+}
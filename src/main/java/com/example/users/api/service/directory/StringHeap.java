@@ -0,0 +1,84 @@
+package com.example.users.api.service.directory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Arrays;
+
+/**
+ * Strings stored back to back as UTF-8 in one growing byte array. A string is referenced by a long
+ * holding its offset and length, so the garbage collector sees a single object however many
+ * strings there are. Replaced strings stay behind as waste until the owner compacts the heap.
+ */
+final class StringHeap {
+  static final long NULL = -1;
+  private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+  private byte[] bytes;
+  private int used;
+  private long wasted;
+
+  StringHeap(int capacity) {
+    bytes = new byte[Math.max(capacity, 64)];
+  }
+
+  long add(String value) {
+    if (value == null) {
+      return NULL;
+    }
+    var encoded = value.getBytes(UTF_8);
+    return append(encoded, 0, encoded.length);
+  }
+
+  /**
+   * Copies a string of another heap into this one.
+   */
+  long copy(StringHeap source, long reference) {
+    return reference == NULL ? NULL
+        : append(source.bytes, offset(reference), length(reference));
+  }
+
+  String get(long reference) {
+    return reference == NULL ? null
+        : new String(bytes, offset(reference), length(reference), UTF_8);
+  }
+
+  void free(long reference) {
+    if (reference != NULL) {
+      wasted += length(reference);
+    }
+  }
+
+  int used() {
+    return used;
+  }
+
+  long wasted() {
+    return wasted;
+  }
+
+  int capacity() {
+    return bytes.length;
+  }
+
+  private long append(byte[] source, int offset, int length) {
+    if (used + (long) length > bytes.length) {
+      var required = used + (long) length;
+      if (required > MAX_SIZE) {
+        throw new IllegalStateException("String heap is full");
+      }
+      bytes = Arrays.copyOf(bytes, (int) Math.min(MAX_SIZE, Math.max(required, bytes.length * 2L)));
+    }
+    System.arraycopy(source, offset, bytes, used, length);
+    var reference = (long) used << 32 | length;
+    used += length;
+    return reference;
+  }
+
+  private static int offset(long reference) {
+    return (int) (reference >>> 32);
+  }
+
+  private static int length(long reference) {
+    return (int) reference;
+  }
+}
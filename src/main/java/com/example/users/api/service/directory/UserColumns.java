@@ -0,0 +1,268 @@
+package com.example.users.api.service.directory;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Users stored column by column in primitive arrays indexed by slot, without password hashes.
+ * Names repeat a lot and are dictionary encoded, the other strings live in a {@link StringHeap},
+ * and an array of slots sorted by birth date and id serves range searches. About a hundred bytes
+ * per user plus the strings, against several hundred for a {@link User}. Not thread-safe.
+ */
+final class UserColumns {
+  private static final long FREE = 0;
+  private static final int NO_DATE = Integer.MIN_VALUE;
+  private static final int NO_NAME = -1;
+  private static final int MIN_COMPACTED_WASTE = 1 << 20;
+  private static final UserStatus[] STATUSES = UserStatus.values();
+
+  private long[] ids;
+  private int[] birthDays;
+  private byte[] statuses;
+  private int[] firstNames;
+  private int[] lastNames;
+  private long[] usernames;
+  private long[] emails;
+  private long[] addresses;
+  private long[] phoneNumbers;
+  private int slots;
+  private int[] freeSlots = new int[16];
+  private int freeSlotCount;
+  private final LongIntHashMap slotsById = new LongIntHashMap();
+  private StringHeap strings;
+  private final Map<String, Integer> nameCodes = new HashMap<>();
+  private final List<String> names = new ArrayList<>();
+  private int[] byBirthDate = new int[0];
+  private int indexed;
+  private boolean indexing;
+
+  UserColumns(int capacity) {
+    capacity = Math.max(capacity, 16);
+    ids = new long[capacity];
+    birthDays = new int[capacity];
+    statuses = new byte[capacity];
+    firstNames = new int[capacity];
+    lastNames = new int[capacity];
+    usernames = new long[capacity];
+    emails = new long[capacity];
+    addresses = new long[capacity];
+    phoneNumbers = new long[capacity];
+    strings = new StringHeap(capacity * 32);
+  }
+
+  int size() {
+    return slotsById.size();
+  }
+
+  /**
+   * Approximate heap footprint in bytes, strings and index included.
+   */
+  long memoryBytes() {
+    return ids.length * 53L + slotsById.capacity() * 12L + byBirthDate.length * 4L
+        + freeSlots.length * 4L + strings.capacity() + names.size() * 64L;
+  }
+
+  void put(User user) {
+    var id = user.getId();
+    var slot = slotsById.get(id);
+    if (slot < 0) {
+      slot = allocate();
+      ids[slot] = id;
+      slotsById.put(id, slot);
+    } else {
+      unindex(slot);
+      freeStrings(slot);
+    }
+    birthDays[slot] = user.getBirthDate() == null ? NO_DATE
+        : (int) user.getBirthDate().toEpochDay();
+    statuses[slot] = (byte) (user.getStatus() == null ? UserStatus.ACTIVE : user.getStatus())
+        .ordinal();
+    firstNames[slot] = nameCode(user.getFirstName());
+    lastNames[slot] = nameCode(user.getLastName());
+    usernames[slot] = strings.add(user.getUsername());
+    emails[slot] = strings.add(user.getEmail());
+    addresses[slot] = strings.add(user.getAddress());
+    phoneNumbers[slot] = strings.add(user.getPhoneNumber());
+    index(slot);
+    if (strings.wasted() > MIN_COMPACTED_WASTE && strings.wasted() > strings.used() / 2) {
+      compact();
+    }
+  }
+
+  void remove(long id) {
+    var slot = slotsById.get(id);
+    if (slot < 0) {
+      return;
+    }
+    unindex(slot);
+    freeStrings(slot);
+    ids[slot] = FREE;
+    slotsById.remove(id);
+    if (freeSlotCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+    }
+    freeSlots[freeSlotCount++] = slot;
+  }
+
+  Optional<User> findById(long id) {
+    var slot = slotsById.get(id);
+    return slot < 0 ? Optional.empty() : Optional.of(toUser(slot));
+  }
+
+  /**
+   * Users born between both dates inclusive, ordered by birth date and id like the database.
+   * Needs the index built by {@link #buildIndex()}.
+   */
+  List<User> findAllByBirthDateBetween(LocalDate from, LocalDate to) {
+    if (!indexing) {
+      throw new IllegalStateException("Birth date index is not built");
+    }
+    var toDay = to.toEpochDay();
+    var users = new ArrayList<User>();
+    for (var i = lowerBound((int) from.toEpochDay(), Long.MIN_VALUE); i < indexed; i++) {
+      var slot = byBirthDate[i];
+      if (birthDays[slot] > toDay) {
+        break;
+      }
+      users.add(toUser(slot));
+    }
+    return users;
+  }
+
+  /**
+   * Sorts every user into the birth date index at once, which is kept up to date from then on.
+   * Bulk loads call it at the end instead of paying for an ordered insert per user.
+   */
+  void buildIndex() {
+    byBirthDate = IntStream.range(0, slots)
+        .filter(slot -> ids[slot] != FREE && birthDays[slot] != NO_DATE)
+        .boxed()
+        .sorted(Comparator.<Integer>comparingInt(slot -> birthDays[slot])
+            .thenComparingLong(slot -> ids[slot]))
+        .mapToInt(Integer::intValue)
+        .toArray();
+    indexed = byBirthDate.length;
+    indexing = true;
+  }
+
+  private User toUser(int slot) {
+    var user = new User();
+    user.setId(ids[slot]);
+    user.setFirstName(name(firstNames[slot]));
+    user.setLastName(name(lastNames[slot]));
+    user.setUsername(strings.get(usernames[slot]));
+    user.setEmail(strings.get(emails[slot]));
+    user.setBirthDate(birthDays[slot] == NO_DATE ? null : LocalDate.ofEpochDay(birthDays[slot]));
+    user.setAddress(strings.get(addresses[slot]));
+    user.setPhoneNumber(strings.get(phoneNumbers[slot]));
+    user.setStatus(STATUSES[statuses[slot]]);
+    return user;
+  }
+
+  private int allocate() {
+    if (freeSlotCount > 0) {
+      return freeSlots[--freeSlotCount];
+    }
+    if (slots == ids.length) {
+      var capacity = ids.length * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      birthDays = Arrays.copyOf(birthDays, capacity);
+      statuses = Arrays.copyOf(statuses, capacity);
+      firstNames = Arrays.copyOf(firstNames, capacity);
+      lastNames = Arrays.copyOf(lastNames, capacity);
+      usernames = Arrays.copyOf(usernames, capacity);
+      emails = Arrays.copyOf(emails, capacity);
+      addresses = Arrays.copyOf(addresses, capacity);
+      phoneNumbers = Arrays.copyOf(phoneNumbers, capacity);
+    }
+    return slots++;
+  }
+
+  private void index(int slot) {
+    if (!indexing || birthDays[slot] == NO_DATE) {
+      return;
+    }
+    var position = lowerBound(birthDays[slot], ids[slot]);
+    if (indexed == byBirthDate.length) {
+      byBirthDate = Arrays.copyOf(byBirthDate, Math.max(16, indexed * 2));
+    }
+    System.arraycopy(byBirthDate, position, byBirthDate, position + 1, indexed - position);
+    byBirthDate[position] = slot;
+    indexed++;
+  }
+
+  private void unindex(int slot) {
+    if (!indexing || birthDays[slot] == NO_DATE) {
+      return;
+    }
+    var position = lowerBound(birthDays[slot], ids[slot]);
+    if (position < indexed && byBirthDate[position] == slot) {
+      System.arraycopy(byBirthDate, position + 1, byBirthDate, position, indexed - position - 1);
+      indexed--;
+    }
+  }
+
+  // First index position not ordered before the given birth date and id
+  private int lowerBound(int birthDay, long id) {
+    var low = 0;
+    var high = indexed;
+    while (low < high) {
+      var middle = (low + high) >>> 1;
+      var slot = byBirthDate[middle];
+      var before = birthDays[slot] < birthDay || birthDays[slot] == birthDay && ids[slot] < id;
+      if (before) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int nameCode(String name) {
+    if (name == null) {
+      return NO_NAME;
+    }
+    var code = nameCodes.get(name);
+    if (code == null) {
+      code = names.size();
+      nameCodes.put(name, code);
+      names.add(name);
+    }
+    return code;
+  }
+
+  private String name(int code) {
+    return code == NO_NAME ? null : names.get(code);
+  }
+
+  private void freeStrings(int slot) {
+    strings.free(usernames[slot]);
+    strings.free(emails[slot]);
+    strings.free(addresses[slot]);
+    strings.free(phoneNumbers[slot]);
+  }
+
+  private void compact() {
+    var live = strings.used() - strings.wasted();
+    var compacted = new StringHeap((int) Math.min(Integer.MAX_VALUE - 8, live * 2));
+    for (var slot = 0; slot < slots; slot++) {
+      if (ids[slot] != FREE) {
+        usernames[slot] = compacted.copy(strings, usernames[slot]);
+        emails[slot] = compacted.copy(strings, emails[slot]);
+        addresses[slot] = compacted.copy(strings, addresses[slot]);
+        phoneNumbers[slot] = compacted.copy(strings, phoneNumbers[slot]);
+      }
+    }
+    strings = compacted;
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.users.api.service.directory;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.service.changes.ChangeType;
+import com.example.users.api.service.changes.UserChange;
+import com.example.users.api.service.changes.UserChangeFeed;
+import com.example.users.api.service.changes.UserChangePage;
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * The whole user directory held in memory as {@link UserColumns}, for serving lookups by id and
+ * birth date without the database. It is loaded by paging through the change feed from the start
+ * and then follows the feed, which also carries the writes of other nodes and deletes. Writes of
+ * this node are applied as soon as they commit.
+ */
+@Slf4j
+@Component
+public class UserDirectory {
+  private static final String METRIC = "user.directory";
+
+  private final UserChangeFeed changeFeed;
+  private final boolean enabled;
+  private final int pageSize;
+  private final UserColumns columns;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ReentrantLock refreshLock = new ReentrantLock();
+  private String cursor = "";
+  private volatile boolean loaded;
+
+  public UserDirectory(UserChangeFeed changeFeed,
+                       @Value("${user-directory.enabled}") boolean enabled,
+                       @Value("${user-directory.initial-capacity}") int initialCapacity,
+                       @Value("${user-changes.max-page-size}") int pageSize,
+                       MeterRegistry meterRegistry) {
+    this.changeFeed = changeFeed;
+    this.enabled = enabled;
+    this.pageSize = pageSize;
+    this.columns = new UserColumns(enabled ? initialCapacity : 0);
+    Gauge.builder(METRIC + ".size", this, directory -> directory.read(UserColumns::size))
+        .register(meterRegistry);
+    Gauge.builder(METRIC + ".memory", this, directory -> directory.read(UserColumns::memoryBytes))
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  public Optional<User> findById(long id) {
+    return read(columns -> columns.findById(id));
+  }
+
+  public List<User> findAllByBirthDateBetween(LocalDate from, LocalDate to) {
+    return read(columns -> columns.findAllByBirthDateBetween(from, to));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (!enabled) {
+      return;
+    }
+    refreshLock.lock();
+    try {
+      catchUp();
+      write(UserColumns::buildIndex);
+    } finally {
+      refreshLock.unlock();
+    }
+    loaded = true;
+    log.info("User directory loaded {} users in about {} MB", read(UserColumns::size),
+        read(UserColumns::memoryBytes) >> 20);
+  }
+
+  @Scheduled(fixedDelayString = "${user-directory.refresh-interval}",
+      initialDelayString = "${user-directory.refresh-interval}")
+  public void refresh() {
+    if (!loaded || !refreshLock.tryLock()) {
+      return;
+    }
+    try {
+      catchUp();
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCreated(UserCreatedEvent event) {
+    if (enabled) {
+      write(columns -> columns.put(event.user()));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUpdated(UserUpdatedEvent event) {
+    if (enabled) {
+      write(columns -> columns.put(event.user()));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeleted(UserDeletedEvent event) {
+    if (enabled) {
+      write(columns -> columns.remove(event.id()));
+    }
+  }
+
+  private void catchUp() {
+    UserChangePage page;
+    do {
+      page = changeFeed.changesSince(cursor, pageSize);
+      var changes = page.changes();
+      write(columns -> changes.forEach(change -> apply(columns, change)));
+      cursor = page.next();
+    } while (page.changes().size() == pageSize);
+  }
+
+  private static void apply(UserColumns columns, UserChange change) {
+    if (change.type() == ChangeType.DELETED) {
+      columns.remove(change.id());
+    } else {
+      columns.put(change.user());
+    }
+  }
+
+  private <T> T read(Function<UserColumns, T> action) {
+    lock.readLock().lock();
+    try {
+      return action.apply(columns);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void write(Consumer<UserColumns> action) {
+    lock.writeLock().lock();
+    try {
+      action.accept(columns);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
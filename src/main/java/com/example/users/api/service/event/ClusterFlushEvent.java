@@ -0,0 +1,8 @@
+package com.example.users.api.service.event;
+
+/**
+ * Changes made on other nodes may have been missed, e.g. while reconnecting, so in-process
+ * caches have to be reloaded or dropped.
+ */
+public record ClusterFlushEvent() {
+}
@@ -0,0 +1,44 @@
+package com.example.users.api.service.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A change made on another node that in-process caches have to reflect. Fields that don't apply
+ * to a type are null.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClusterInvalidation(Type type, String username, String previousUsername,
+                                  LocalDate birthDate, LocalDate previousBirthDate,
+                                  String tokenId, Instant expiresAt) {
+
+  public static ClusterInvalidation of(UserCreatedEvent event) {
+    var user = event.user();
+    return new ClusterInvalidation(Type.USER_CREATED, user.getUsername(), null,
+        user.getBirthDate(), null, null, null);
+  }
+
+  public static ClusterInvalidation of(UserUpdatedEvent event) {
+    var user = event.user();
+    return new ClusterInvalidation(Type.USER_UPDATED, user.getUsername(),
+        event.previousUsername(), user.getBirthDate(), event.previousBirthDate(), null, null);
+  }
+
+  public static ClusterInvalidation of(UserDeletedEvent event) {
+    return new ClusterInvalidation(Type.USER_DELETED, event.username(), null, event.birthDate(),
+        null, null, null);
+  }
+
+  public static ClusterInvalidation tokenDenied(String tokenId, Instant expiresAt) {
+    return new ClusterInvalidation(Type.TOKEN_DENIED, null, null, null, null, tokenId,
+        expiresAt);
+  }
+
+  public enum Type {
+    USER_CREATED,
+    USER_UPDATED,
+    USER_DELETED,
+    TOKEN_DENIED
+  }
+}
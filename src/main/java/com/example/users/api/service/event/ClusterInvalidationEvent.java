@@ -0,0 +1,9 @@
+package com.example.users.api.service.event;
+
+import java.util.List;
+
+/**
+ * A batch of changes made on other nodes, in the order they were received.
+ */
+public record ClusterInvalidationEvent(List<ClusterInvalidation> invalidations) {
+}
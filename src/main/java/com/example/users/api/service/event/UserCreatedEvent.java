@@ -0,0 +1,6 @@
+package com.example.users.api.service.event;
+
+import com.example.users.api.domain.User;
+
+public record UserCreatedEvent(User user) {
+}
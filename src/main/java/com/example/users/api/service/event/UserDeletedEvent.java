@@ -0,0 +1,6 @@
+package com.example.users.api.service.event;
+
+import java.time.LocalDate;
+
+public record UserDeletedEvent(Long id, String username, LocalDate birthDate) {
+}
@@ -0,0 +1,7 @@
+package com.example.users.api.service.event;
+
+import com.example.users.api.domain.User;
+import java.time.LocalDate;
+
+public record UserUpdatedEvent(String previousUsername, LocalDate previousBirthDate, User user) {
+}
@@ -0,0 +1,124 @@
+package com.example.users.api.service.export;
+
+import static com.example.users.api.domain.UserIdGenerator.BUCKETS;
+
+import com.example.users.api.config.sharding.ShardMap;
+import com.example.users.api.config.sharding.ShardRoutingDataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams users as CSV straight from Postgres with {@code COPY ... TO STDOUT}, so the rows are
+ * never turned into entities and memory use doesn't depend on the number of users. The columns
+ * are the ones of {@link com.example.users.api.web.dto.UserDto}.
+ */
+@Component
+public class UserExporter {
+  private static final String COLUMNS = """
+      id, first_name as "firstName", last_name as "lastName", username, email,
+      to_char(birth_date, 'DD-MM-YYYY') as "birthDate", address, phone_number as "phoneNumber\"""";
+
+  private final DataSource dataSource;
+  private final TransactionTemplate readOnlyTransaction;
+  private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+  private final ObjectProvider<ShardMap> shardMap;
+
+  public UserExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+                      ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                      ObjectProvider<ShardMap> shardMap) {
+    this.dataSource = dataSource;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.shardRoutingDataSource = shardRoutingDataSource;
+    this.shardMap = shardMap;
+  }
+
+  /**
+   * Validates the filters before anything is written. Users born between the given dates, either
+   * of which may be null, are written in no particular order.
+   */
+  public Export prepare(LocalDate birthDateFrom, LocalDate birthDateTo) {
+    if (birthDateFrom != null && birthDateTo != null && birthDateFrom.isAfter(birthDateTo)) {
+      throw new IllegalArgumentException(
+          "The 'birth_date_from' date can't be after the 'birth_date_to' date");
+    }
+    var conditions = new ArrayList<String>();
+    conditions.add("deleted_at is null");
+    // Dates are formatted by LocalDate, so they are safe to inline
+    if (birthDateFrom != null) {
+      conditions.add("birth_date >= date '" + birthDateFrom + "'");
+    }
+    if (birthDateTo != null) {
+      conditions.add("birth_date <= date '" + birthDateTo + "'");
+    }
+    return out -> export(conditions, out);
+  }
+
+  private void export(List<String> conditions, OutputStream out) throws IOException {
+    var routing = shardRoutingDataSource.getIfAvailable();
+    if (routing == null) {
+      try {
+        readOnlyTransaction.executeWithoutResult(status -> copyOut(
+            DataSourceUtils.getConnection(dataSource), conditions, true, out));
+      } catch (UncheckedIOException exception) {
+        throw exception.getCause();
+      }
+      return;
+    }
+    var shards = routing.shardDataSources();
+    for (var shard = 0; shard < shards.size(); shard++) {
+      var shardConditions = new ArrayList<>(conditions);
+      shardConditions.add(ownedBuckets(shard));
+      try (var connection = shards.get(shard).getConnection()) {
+        connection.setReadOnly(true);
+        copyOut(connection, shardConditions, shard == 0, out);
+      } catch (SQLException exception) {
+        throw new IllegalStateException("Exporting users failed", exception);
+      } catch (UncheckedIOException exception) {
+        throw exception.getCause();
+      }
+    }
+  }
+
+  private String ownedBuckets(int shard) {
+    // Skips the copies a shard holds of buckets being moved to it
+    var map = shardMap.getObject();
+    return IntStream.range(0, BUCKETS)
+        .filter(bucket -> map.shardOf(bucket) == shard)
+        .mapToObj(Integer::toString)
+        .collect(Collectors.joining(",", "(id & " + (BUCKETS - 1) + ") = any('{", "}')"));
+  }
+
+  private static void copyOut(Connection connection, List<String> conditions, boolean header,
+                              OutputStream out) {
+    var sql = "copy (select %s from users where %s) to stdout with (format csv%s)"
+        .formatted(COLUMNS, String.join(" and ", conditions), header ? ", header" : "");
+    try {
+      connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+    } catch (SQLException exception) {
+      throw new IllegalStateException("Exporting users failed", exception);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  @FunctionalInterface
+  public interface Export {
+    void writeTo(OutputStream out) throws IOException;
+  }
+}
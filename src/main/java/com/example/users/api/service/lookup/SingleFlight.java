@@ -0,0 +1,74 @@
+package com.example.users.api.service.lookup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time. Callers that arrive while a load is in flight wait for
+ * its result, or its exception, instead of starting their own. Nothing is cached: the key is
+ * forgotten as soon as the load finishes.
+ */
+public class SingleFlight<K, V> {
+  private static final String METRIC = "single.flight.calls";
+
+  private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+  private final long timeout;
+  private final Counter leaders;
+  private final Counter coalesced;
+  private final Counter timedOut;
+
+  public SingleFlight(String name, Duration timeout, MeterRegistry meterRegistry) {
+    this.timeout = timeout.toNanos();
+    this.leaders = counter(name, "leader", meterRegistry);
+    this.coalesced = counter(name, "coalesced", meterRegistry);
+    this.timedOut = counter(name, "timed-out", meterRegistry);
+  }
+
+  public V execute(K key, Supplier<V> loader) {
+    var call = new CompletableFuture<V>();
+    var inFlight = calls.putIfAbsent(key, call);
+    if (inFlight == null) {
+      leaders.increment();
+      try {
+        var value = loader.get();
+        call.complete(value);
+        return value;
+      } catch (RuntimeException | Error exception) {
+        call.completeExceptionally(exception);
+        throw exception;
+      } finally {
+        calls.remove(key, call);
+      }
+    }
+    coalesced.increment();
+    try {
+      return inFlight.get(timeout, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException exception) {
+      // The leader may be stuck on a broken connection, so only it keeps waiting on it
+      timedOut.increment();
+      return loader.get();
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw (Error) exception.getCause();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for " + key, exception);
+    }
+  }
+
+  private static Counter counter(String name, String outcome, MeterRegistry meterRegistry) {
+    return Counter.builder(METRIC)
+        .tag("name", name)
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.users.api.service.lookup;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Read-only user lookups where concurrent requests for the same id or username share one query.
+ * The users returned are shared between callers and must not be modified. Calls inside a
+ * transaction always query on their own, so they see their own writes and get managed entities.
+ */
+@Component
+public class UserLookup {
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final boolean enabled;
+  private final SingleFlight<Long, Optional<User>> byId;
+  private final SingleFlight<String, Optional<User>> byUsername;
+
+  public UserLookup(UserRepository userRepository,
+                    PlatformTransactionManager transactionManager,
+                    @Value("${user-lookup.single-flight.enabled}") boolean enabled,
+                    @Value("${user-lookup.single-flight.timeout}") Duration timeout,
+                    MeterRegistry meterRegistry) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.enabled = enabled;
+    this.byId = new SingleFlight<>("user.by.id", timeout, meterRegistry);
+    this.byUsername = new SingleFlight<>("user.by.username", timeout, meterRegistry);
+  }
+
+  public Optional<User> findById(Long id) {
+    return find(byId, id, () -> userRepository.findById(id));
+  }
+
+  public Optional<User> findByUsername(String username) {
+    return find(byUsername, username, () -> userRepository.findByUsername(username));
+  }
+
+  private <K> Optional<User> find(SingleFlight<K, Optional<User>> singleFlight, K key,
+                                  Supplier<Optional<User>> query) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return query.get();
+    }
+    Supplier<Optional<User>> load = () -> readOnlyTransaction.execute(status -> query.get());
+    return enabled ? singleFlight.execute(key, load) : load.get();
+  }
+}
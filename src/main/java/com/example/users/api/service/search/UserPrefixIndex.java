@@ -0,0 +1,178 @@
+package com.example.users.api.service.search;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.service.event.ClusterFlushEvent;
+import com.example.users.api.service.event.ClusterInvalidationEvent;
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sorted in-memory index of normalized usernames, names and emails for typeahead lookups. Every
+ * entry is a key followed by the username it belongs to, so a prefix lookup is a range scan.
+ */
+@Slf4j
+@Component
+public class UserPrefixIndex {
+  private static final char SEPARATOR = '\u0000';
+
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final boolean enabled;
+  private final ConcurrentSkipListSet<String> entries = new ConcurrentSkipListSet<>();
+  private final ConcurrentHashMap<String, List<String>> entriesByUsername =
+      new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+
+  public UserPrefixIndex(UserRepository userRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${user-search.prefix-index.enabled}") boolean enabled) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.enabled = enabled;
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  public List<String> findUsernames(String prefix, int limit) {
+    var usernames = new LinkedHashSet<String>();
+    for (var entry : entries.subSet(prefix, prefix + Character.MAX_VALUE)) {
+      usernames.add(entry.substring(entry.lastIndexOf(SEPARATOR) + 1));
+      if (usernames.size() == limit) {
+        break;
+      }
+    }
+    return List.copyOf(usernames);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (!enabled) {
+      return;
+    }
+    readOnlyTransaction.executeWithoutResult(status -> {
+      try (var keys = userRepository.streamAllSearchKeys()) {
+        keys.forEach(key -> put(key.getUsername(), key.getFirstName(), key.getLastName(),
+            key.getEmail()));
+      }
+    });
+    loaded = true;
+    log.info("User prefix index loaded for {} users", entriesByUsername.size());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCreated(UserCreatedEvent event) {
+    if (enabled) {
+      put(event.user());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUpdated(UserUpdatedEvent event) {
+    if (enabled) {
+      if (!event.user().getUsername().equals(event.previousUsername())) {
+        remove(event.previousUsername());
+      }
+      put(event.user());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeleted(UserDeletedEvent event) {
+    if (enabled) {
+      remove(event.username());
+    }
+  }
+
+  @EventListener
+  public void onClusterInvalidation(ClusterInvalidationEvent event) {
+    if (!enabled) {
+      return;
+    }
+    var usernames = new HashSet<String>();
+    for (var invalidation : event.invalidations()) {
+      if (invalidation.username() != null) {
+        usernames.add(invalidation.username());
+      }
+      if (invalidation.previousUsername() != null) {
+        usernames.add(invalidation.previousUsername());
+      }
+    }
+    if (usernames.isEmpty()) {
+      return;
+    }
+    // Reloads the whole batch in one query instead of trusting the order notifications arrive in
+    var keys = readOnlyTransaction.execute(
+        status -> userRepository.findSearchKeysByUsernameIn(usernames));
+    usernames.forEach(this::remove);
+    keys.forEach(key -> put(key.getUsername(), key.getFirstName(), key.getLastName(),
+        key.getEmail()));
+  }
+
+  @EventListener(ClusterFlushEvent.class)
+  public void onClusterFlush() {
+    if (enabled) {
+      entriesByUsername.keySet().forEach(this::remove);
+      load();
+    }
+  }
+
+  void put(User user) {
+    put(user.getUsername(), user.getFirstName(), user.getLastName(), user.getEmail());
+  }
+
+  void put(String username, String firstName, String lastName, String email) {
+    var keys = new ArrayList<String>();
+    keys.add(normalize(username));
+    keys.add(normalize(email));
+    // Same expression as the normalized_name column, plus every word so "doe" finds "john doe"
+    var name = normalize(firstName) + " " + normalize(lastName);
+    for (var i = 0; i < name.length(); i++) {
+      if (name.charAt(i) != ' ' && (i == 0 || name.charAt(i - 1) == ' ')) {
+        keys.add(name.substring(i));
+      }
+    }
+    var userEntries = keys.stream()
+        .filter(key -> !key.isEmpty())
+        .map(key -> key + SEPARATOR + username)
+        .distinct()
+        .toList();
+    entriesByUsername.compute(username, (key, previous) -> {
+      if (previous != null) {
+        previous.forEach(entries::remove);
+      }
+      entries.addAll(userEntries);
+      return userEntries;
+    });
+  }
+
+  void remove(String username) {
+    entriesByUsername.computeIfPresent(username, (key, previous) -> {
+      previous.forEach(entries::remove);
+      return null;
+    });
+  }
+
+  static String normalize(String value) {
+    return value == null ? "" : value.toLowerCase(Locale.ROOT);
+  }
+}
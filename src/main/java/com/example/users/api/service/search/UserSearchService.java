@@ -0,0 +1,60 @@
+package com.example.users.api.service.search;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.repository.UserRepository;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UserSearchService {
+  private static final int MIN_QUERY_LENGTH = 3;
+
+  private final UserRepository userRepository;
+  private final UserPrefixIndex userPrefixIndex;
+  private final int maxResults;
+
+  public UserSearchService(UserRepository userRepository,
+                           UserPrefixIndex userPrefixIndex,
+                           @Value("${user-search.max-results}") int maxResults) {
+    this.userRepository = userRepository;
+    this.userPrefixIndex = userPrefixIndex;
+    this.maxResults = maxResults;
+  }
+
+  @Transactional(readOnly = true)
+  public List<User> search(String query, long afterId, int limit) {
+    checkLimit(limit);
+    var normalized = UserPrefixIndex.normalize(query).strip();
+    if (normalized.length() < MIN_QUERY_LENGTH) {
+      throw new IllegalArgumentException(
+          "Search query must be at least %d characters".formatted(MIN_QUERY_LENGTH));
+    }
+    return userRepository.search(normalized, "%" + escapeLike(normalized) + "%", afterId, limit);
+  }
+
+  @Transactional(readOnly = true)
+  public List<String> suggestUsernames(String prefix, int limit) {
+    checkLimit(limit);
+    var normalized = UserPrefixIndex.normalize(prefix).stripLeading();
+    if (normalized.isEmpty()) {
+      throw new IllegalArgumentException("Prefix must not be blank");
+    }
+    if (userPrefixIndex.isLoaded()) {
+      return userPrefixIndex.findUsernames(normalized, limit);
+    }
+    return userRepository.findUsernamesByPrefix(escapeLike(normalized) + "%", limit);
+  }
+
+  private void checkLimit(int limit) {
+    if (limit < 1 || limit > maxResults) {
+      throw new IllegalArgumentException(
+          "Limit must be between 1 and %d".formatted(maxResults));
+    }
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
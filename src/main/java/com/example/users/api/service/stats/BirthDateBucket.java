@@ -0,0 +1,4 @@
+package com.example.users.api.service.stats;
+
+public record BirthDateBucket(String bucket, long count) {
+}
@@ -0,0 +1,16 @@
+package com.example.users.api.service.stats;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+public enum BirthDateGrouping {
+  YEAR, MONTH, AGE;
+
+  public static BirthDateGrouping of(String value) {
+    return Arrays.stream(values())
+        .filter(grouping -> grouping.name().equals(value.toUpperCase(Locale.ROOT)))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException(
+            "Grouping must be one of year, month or age"));
+  }
+}
@@ -0,0 +1,160 @@
+package com.example.users.api.service.stats;
+
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.service.event.ClusterFlushEvent;
+import com.example.users.api.service.event.ClusterInvalidationEvent;
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Counts users per birth date, either straight from the database or from in-memory counters that
+ * follow user events and are periodically resynchronized to pick up writes made by other nodes.
+ * Buckets are derived from the per-date counts, so a query costs O(distinct birth dates).
+ */
+@Slf4j
+@Service
+public class BirthDateStatistics {
+  private final UserRepository userRepository;
+  private final boolean countersEnabled;
+  private final int minAge;
+  private volatile ConcurrentSkipListMap<LocalDate, AtomicLong> counters;
+
+  public BirthDateStatistics(UserRepository userRepository,
+                             @Value("${birth-date-stats.counters.enabled}")
+                             boolean countersEnabled,
+                             @Value("${min.user.age}") int minAge) {
+    this.userRepository = userRepository;
+    this.countersEnabled = countersEnabled;
+    this.minAge = minAge;
+  }
+
+  @Transactional(readOnly = true)
+  public List<BirthDateBucket> countBy(BirthDateGrouping grouping, int ageBucketSize) {
+    if (ageBucketSize < 1) {
+      throw new IllegalArgumentException("Age bucket size must be positive");
+    }
+    var today = LocalDate.now();
+    Function<LocalDate, Integer> bucketOf = switch (grouping) {
+      case YEAR -> LocalDate::getYear;
+      case MONTH -> LocalDate::getMonthValue;
+      case AGE -> birthDate -> {
+        var age = Period.between(birthDate, today).getYears();
+        return age < minAge ? null : minAge + (age - minAge) / ageBucketSize * ageBucketSize;
+      };
+    };
+    var counts = new TreeMap<Integer, Long>();
+    forEachCount((birthDate, count) -> {
+      var bucket = bucketOf.apply(birthDate);
+      if (bucket != null && count > 0) {
+        counts.merge(bucket, count, Long::sum);
+      }
+    });
+    var buckets = new ArrayList<BirthDateBucket>(counts.size());
+    counts.forEach((bucket, count) -> buckets.add(new BirthDateBucket(
+        grouping == BirthDateGrouping.AGE
+            ? "%d-%d".formatted(bucket, bucket + ageBucketSize - 1)
+            : String.valueOf(bucket),
+        count)));
+    return buckets;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${birth-date-stats.counters.resync-interval}",
+      initialDelayString = "${birth-date-stats.counters.resync-interval}")
+  public void resync() {
+    if (!countersEnabled) {
+      return;
+    }
+    var resynced = new ConcurrentSkipListMap<LocalDate, AtomicLong>();
+    for (var count : userRepository.countAllGroupByBirthDate()) {
+      if (count.getBirthDate() != null) {
+        // With sharding every shard reports its own count for the same date
+        resynced.computeIfAbsent(count.getBirthDate(), date -> new AtomicLong())
+            .addAndGet(count.getCount());
+      }
+    }
+    counters = resynced;
+    log.debug("Birth date counters resynchronized for {} dates", resynced.size());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCreated(UserCreatedEvent event) {
+    adjust(event.user().getBirthDate(), 1);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUpdated(UserUpdatedEvent event) {
+    var birthDate = event.user().getBirthDate();
+    if (!birthDate.equals(event.previousBirthDate())) {
+      adjust(event.previousBirthDate(), -1);
+      adjust(birthDate, 1);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeleted(UserDeletedEvent event) {
+    adjust(event.birthDate(), -1);
+  }
+
+  @EventListener
+  public void onClusterInvalidation(ClusterInvalidationEvent event) {
+    for (var invalidation : event.invalidations()) {
+      switch (invalidation.type()) {
+        case USER_CREATED -> adjust(invalidation.birthDate(), 1);
+        case USER_UPDATED -> {
+          if (!Objects.equals(invalidation.birthDate(), invalidation.previousBirthDate())) {
+            adjust(invalidation.previousBirthDate(), -1);
+            adjust(invalidation.birthDate(), 1);
+          }
+        }
+        case USER_DELETED -> adjust(invalidation.birthDate(), -1);
+        default -> {
+        }
+      }
+    }
+  }
+
+  @EventListener(ClusterFlushEvent.class)
+  public void onClusterFlush() {
+    resync();
+  }
+
+  private void forEachCount(BiConsumer<LocalDate, Long> action) {
+    var current = counters;
+    if (current == null) {
+      for (var count : userRepository.countAllGroupByBirthDate()) {
+        if (count.getBirthDate() != null) {
+          action.accept(count.getBirthDate(), count.getCount());
+        }
+      }
+    } else {
+      current.forEach((birthDate, count) -> action.accept(birthDate, count.get()));
+    }
+  }
+
+  private void adjust(LocalDate birthDate, long delta) {
+    var current = counters;
+    if (current != null && birthDate != null) {
+      current.computeIfAbsent(birthDate, date -> new AtomicLong()).addAndGet(delta);
+    }
+  }
+}
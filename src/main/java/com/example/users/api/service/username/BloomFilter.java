@@ -0,0 +1,90 @@
+package com.example.users.api.service.username;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class BloomFilter {
+  private static final double LN2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final long bitSize;
+  private final int hashCount;
+  private final AtomicLong setBits = new AtomicLong();
+
+  BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+    if (expectedInsertions < 1 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+      throw new IllegalArgumentException("Invalid Bloom filter sizing");
+    }
+    var optimalBits = (long) Math.ceil(
+        -expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+    this.words = new AtomicLongArray(Math.toIntExact((optimalBits + 63) >>> 6));
+    this.bitSize = (long) words.length() << 6;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * LN2));
+  }
+
+  boolean put(String value) {
+    var hash = hash(value);
+    var first = (int) hash;
+    var second = (int) (hash >>> 32);
+    var changed = false;
+    for (var i = 1; i <= hashCount; i++) {
+      changed |= setBit(index(first + i * second));
+    }
+    return changed;
+  }
+
+  boolean mightContain(String value) {
+    var hash = hash(value);
+    var first = (int) hash;
+    var second = (int) (hash >>> 32);
+    for (var i = 1; i <= hashCount; i++) {
+      var bit = index(first + i * second);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  double fillRatio() {
+    return (double) setBits.get() / bitSize;
+  }
+
+  long approximateElementCount() {
+    var fill = Math.min(fillRatio(), 1 - 1e-9);
+    return Math.round(-Math.log1p(-fill) * bitSize / hashCount);
+  }
+
+  private long index(int combinedHash) {
+    return (combinedHash & Integer.MAX_VALUE) % bitSize;
+  }
+
+  private boolean setBit(long bit) {
+    var wordIndex = (int) (bit >>> 6);
+    var mask = 1L << bit;
+    long word;
+    do {
+      word = words.get(wordIndex);
+      if ((word & mask) != 0) {
+        return false;
+      }
+    } while (!words.compareAndSet(wordIndex, word, word | mask));
+    setBits.incrementAndGet();
+    return true;
+  }
+
+  private static long hash(String value) {
+    var hash = 0xcbf29ce484222325L;
+    for (var b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
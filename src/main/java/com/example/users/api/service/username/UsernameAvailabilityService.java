@@ -0,0 +1,104 @@
+package com.example.users.api.service.username;
+
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.service.event.ClusterFlushEvent;
+import com.example.users.api.service.event.ClusterInvalidationEvent;
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Service
+public class UsernameAvailabilityService {
+  private static final Pattern USERNAME = Pattern.compile("^\\w{4,32}$");
+
+  private final UsernameFilter usernameFilter;
+  private final UserRepository userRepository;
+  private final int maxTakenEntries;
+  private final long takenTtl;
+  private final ConcurrentHashMap<String, Long> takenUsernames = new ConcurrentHashMap<>();
+
+  public UsernameAvailabilityService(UsernameFilter usernameFilter,
+                                     UserRepository userRepository,
+                                     @Value("${username-availability.max-entries}")
+                                     int maxTakenEntries,
+                                     @Value("${username-availability.ttl}") Duration takenTtl) {
+    this.usernameFilter = usernameFilter;
+    this.userRepository = userRepository;
+    this.maxTakenEntries = maxTakenEntries;
+    this.takenTtl = takenTtl.toNanos();
+  }
+
+  public boolean isAvailable(String username) {
+    if (username == null || !USERNAME.matcher(username).matches()) {
+      throw new IllegalArgumentException("Username must be 4 to 32 of a-z, 0-9 and underscores");
+    }
+    if (!usernameFilter.mightContain(username)) {
+      return true;
+    }
+    var takenUntil = takenUsernames.get(username);
+    if (takenUntil != null && takenUntil - System.nanoTime() > 0) {
+      return false;
+    }
+    var exists = userRepository.existsByUsernameIncludingDeleted(username);
+    if (exists) {
+      rememberTaken(username);
+    } else if (takenUntil != null) {
+      takenUsernames.remove(username, takenUntil);
+    }
+    return !exists;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCreated(UserCreatedEvent event) {
+    rememberTaken(event.user().getUsername());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUpdated(UserUpdatedEvent event) {
+    var username = event.user().getUsername();
+    if (!username.equals(event.previousUsername())) {
+      takenUsernames.remove(event.previousUsername());
+      rememberTaken(username);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDeleted(UserDeletedEvent event) {
+    takenUsernames.remove(event.username());
+  }
+
+  @EventListener
+  public void onClusterInvalidation(ClusterInvalidationEvent event) {
+    for (var invalidation : event.invalidations()) {
+      if (invalidation.username() != null) {
+        takenUsernames.remove(invalidation.username());
+      }
+      if (invalidation.previousUsername() != null) {
+        takenUsernames.remove(invalidation.previousUsername());
+      }
+    }
+  }
+
+  @EventListener(ClusterFlushEvent.class)
+  public void onClusterFlush() {
+    takenUsernames.clear();
+  }
+
+  private void rememberTaken(String username) {
+    var now = System.nanoTime();
+    if (takenUsernames.size() >= maxTakenEntries) {
+      takenUsernames.values().removeIf(takenUntil -> takenUntil - now <= 0);
+      if (takenUsernames.size() >= maxTakenEntries) {
+        return;
+      }
+    }
+    takenUsernames.put(username, now + takenTtl);
+  }
+}
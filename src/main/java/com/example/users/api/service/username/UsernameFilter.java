@@ -0,0 +1,199 @@
+package com.example.users.api.service.username;
+
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.service.event.ClusterFlushEvent;
+import com.example.users.api.service.event.ClusterInvalidationEvent;
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Component
+public class UsernameFilter {
+  private static final int RECENT_ADDITIONS = 1024;
+
+  private final UserRepository userRepository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final boolean enabled;
+  private final long expectedInsertions;
+  private final double falsePositiveProbability;
+  private final Counter negativeLookups;
+  private final Counter positiveLookups;
+  private final AtomicReferenceArray<String> recentAdditions =
+      new AtomicReferenceArray<>(RECENT_ADDITIONS);
+  private final AtomicInteger recentAdditionsIndex = new AtomicInteger();
+  private final AtomicLong staleEntries = new AtomicLong();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private volatile BloomFilter filter;
+  private volatile BloomFilter pendingFilter;
+  private volatile long sizedFor;
+
+  public UsernameFilter(UserRepository userRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${username-filter.enabled}") boolean enabled,
+                        @Value("${username-filter.expected-insertions}") long expectedInsertions,
+                        @Value("${username-filter.false-positive-probability}")
+                        double falsePositiveProbability,
+                        MeterRegistry meterRegistry) {
+    this.userRepository = userRepository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.enabled = enabled;
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveProbability = falsePositiveProbability;
+    this.negativeLookups = Counter.builder("username.filter.lookups")
+        .tag("result", "absent")
+        .register(meterRegistry);
+    this.positiveLookups = Counter.builder("username.filter.lookups")
+        .tag("result", "maybe-present")
+        .register(meterRegistry);
+    Gauge.builder("username.filter.size", this, UsernameFilter::approximateSize)
+        .register(meterRegistry);
+    Gauge.builder("username.filter.fill.ratio", this, UsernameFilter::fillRatio)
+        .register(meterRegistry);
+  }
+
+  public boolean mightContain(String username) {
+    var current = filter;
+    if (current == null) {
+      return true;
+    }
+    if (current.mightContain(username)) {
+      positiveLookups.increment();
+      return true;
+    }
+    negativeLookups.increment();
+    return false;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${username-filter.maintenance-interval}",
+      initialDelayString = "${username-filter.maintenance-interval}")
+  public void maintain() {
+    var current = filter;
+    if (current != null
+        && (current.approximateElementCount() > sizedFor || staleEntries.get() > sizedFor / 4)) {
+      rebuild();
+    }
+  }
+
+  public void rebuild() {
+    if (!rebuilding.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      staleEntries.set(0);
+      var capacity = Math.max(expectedInsertions, userRepository.count() * 2);
+      var next = new BloomFilter(capacity, falsePositiveProbability);
+      pendingFilter = next;
+      readOnlyTransaction.executeWithoutResult(status -> {
+        try (var usernames = userRepository.streamAllUsernames()) {
+          usernames.forEach(next::put);
+        }
+      });
+      // Writes committed after the scan started are not in the snapshot but did pass through add()
+      for (var i = 0; i < RECENT_ADDITIONS; i++) {
+        var username = recentAdditions.get(i);
+        if (username != null) {
+          next.put(username);
+        }
+      }
+      sizedFor = capacity;
+      filter = next;
+      log.info("Username filter rebuilt for {} entries", capacity);
+    } finally {
+      pendingFilter = null;
+      rebuilding.set(false);
+    }
+  }
+
+  @EventListener
+  public void onCreated(UserCreatedEvent event) {
+    add(event.user().getUsername());
+  }
+
+  @EventListener
+  public void onUpdated(UserUpdatedEvent event) {
+    var username = event.user().getUsername();
+    if (!username.equals(event.previousUsername())) {
+      add(username);
+      staleEntries.incrementAndGet();
+    }
+  }
+
+  @EventListener
+  public void onDeleted(UserDeletedEvent event) {
+    staleEntries.incrementAndGet();
+  }
+
+  @EventListener
+  public void onClusterInvalidation(ClusterInvalidationEvent event) {
+    for (var invalidation : event.invalidations()) {
+      switch (invalidation.type()) {
+        case USER_CREATED -> add(invalidation.username());
+        case USER_UPDATED -> {
+          if (!invalidation.username().equals(invalidation.previousUsername())) {
+            add(invalidation.username());
+            staleEntries.incrementAndGet();
+          }
+        }
+        case USER_DELETED -> staleEntries.incrementAndGet();
+        default -> {
+        }
+      }
+    }
+  }
+
+  @EventListener(ClusterFlushEvent.class)
+  public void onClusterFlush() {
+    if (enabled) {
+      rebuild();
+    }
+  }
+
+  private void add(String username) {
+    if (!enabled) {
+      return;
+    }
+    recentAdditions.set(recentAdditionsIndex.getAndIncrement() & (RECENT_ADDITIONS - 1), username);
+    var current = filter;
+    if (current != null) {
+      current.put(username);
+    }
+    var pending = pendingFilter;
+    if (pending != null) {
+      pending.put(username);
+    }
+  }
+
+  private double approximateSize() {
+    var current = filter;
+    return current == null ? 0 : current.approximateElementCount();
+  }
+
+  private double fillRatio() {
+    var current = filter;
+    return current == null ? 0 : current.fillRatio();
+  }
+}
@@ -1,14 +1,25 @@
 package com.example.users.api.web;
 
+import com.example.users.api.exception.AccountNotActivatedException;
+import com.example.users.api.exception.ServiceUnavailableException;
+import com.example.users.api.exception.TooManyRequestsException;
 import com.example.users.api.exception.UserAlreadyExistsException;
 import com.example.users.api.web.dto.ExceptionResponse;
-import java.time.LocalDateTime;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
 import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.FieldError;
@@ -17,12 +28,22 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class UserApiControllerAdvice {
+  private static final DateTimeFormatter TIME_STAMP_FORMAT =
+      DateTimeFormatter.ofPattern("hh:mm:ss");
+  private static final int MAX_PRECOMPUTED_BODIES = 64;
+
+  private final ObjectMapper objectMapper;
+  // Bodies of errors with a constant message, reserialized at most once per second
+  private final Map<String, PrecomputedBody> precomputedBodies = new ConcurrentHashMap<>();
+  private volatile TimeStamp timeStamp = new TimeStamp(Long.MIN_VALUE, "");
 
   @ExceptionHandler(BadCredentialsException.class)
-  public ResponseEntity<ExceptionResponse> handleForbidden(RuntimeException exception) {
+  public ResponseEntity<byte[]> handleForbidden(RuntimeException exception) {
     return ResponseEntity.status(HttpStatus.FORBIDDEN)
-        .body(exceptionResponse(exception.getMessage()));
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(precomputedBody(exception.getMessage()));
   }
 
   @ExceptionHandler({
@@ -44,14 +65,69 @@ public class UserApiControllerAdvice {
     return ResponseEntity.badRequest().body(errors);
   }
 
-  @ExceptionHandler(CannotAcquireLockException.class)
+  @ExceptionHandler({
+      CannotAcquireLockException.class,
+      AccountNotActivatedException.class
+  })
   public ResponseEntity<ExceptionResponse> handleConflict(RuntimeException exception) {
     return ResponseEntity.status(HttpStatus.CONFLICT)
         .body(exceptionResponse(exception.getMessage()));
   }
 
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<byte[]> handleTooManyRequests(TooManyRequestsException exception) {
+    var retryAfterSeconds = Math.max(1, exception.getRetryAfter().toSeconds());
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(precomputedBody(exception.getMessage()));
+  }
+
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public ResponseEntity<byte[]> handleServiceUnavailable(ServiceUnavailableException exception) {
+    var retryAfterSeconds = Math.max(1, exception.getRetryAfter().toSeconds());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(precomputedBody(exception.getMessage()));
+  }
+
   private ExceptionResponse exceptionResponse(String message) {
-    return new ExceptionResponse(message,
-        LocalDateTime.now().format(DateTimeFormatter.ofPattern("hh:mm:ss")));
+    return new ExceptionResponse(message, timeStamp().text());
+  }
+
+  private byte[] precomputedBody(String message) {
+    var now = timeStamp();
+    var cached = precomputedBodies.get(message);
+    if (cached != null && cached.epochSecond() == now.epochSecond()) {
+      return cached.json();
+    }
+    byte[] json;
+    try {
+      json = objectMapper.writeValueAsBytes(new ExceptionResponse(message, now.text()));
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException(exception);
+    }
+    if (cached != null || precomputedBodies.size() < MAX_PRECOMPUTED_BODIES) {
+      precomputedBodies.put(message, new PrecomputedBody(now.epochSecond(), json));
+    }
+    return json;
+  }
+
+  private TimeStamp timeStamp() {
+    var epochSecond = System.currentTimeMillis() / 1000;
+    var current = timeStamp;
+    if (current.epochSecond() != epochSecond) {
+      var time = LocalTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+      current = new TimeStamp(epochSecond, TIME_STAMP_FORMAT.format(time));
+      timeStamp = current;
+    }
+    return current;
+  }
+
+  private record TimeStamp(long epochSecond, String text) {
+  }
+
+  private record PrecomputedBody(long epochSecond, byte[] json) {
   }
 }
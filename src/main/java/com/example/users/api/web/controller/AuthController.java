@@ -1,25 +1,47 @@
 package com.example.users.api.web.controller;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.users.api.exception.InvalidCredentialsException;
+import com.example.users.api.security.JwtTokenProvider;
+import com.example.users.api.security.RefreshTokenService;
+import com.example.users.api.security.TokenDenyList;
+import com.example.users.api.security.TokenIntrospector;
+import com.example.users.api.security.ratelimit.IntrospectionRateLimiter;
+import com.example.users.api.security.ratelimit.SignInRateLimiter;
 import com.example.users.api.service.UserService;
+import com.example.users.api.service.username.UsernameAvailabilityService;
 import com.example.users.api.web.dto.Credentials;
+import com.example.users.api.web.dto.IntrospectionRequest;
+import com.example.users.api.web.dto.IntrospectionResult;
 import com.example.users.api.web.dto.JwtToken;
+import com.example.users.api.web.dto.RefreshTokenRequest;
+import com.example.users.api.web.dto.SignUpStatus;
 import com.example.users.api.web.dto.UserCreationDto;
 import com.example.users.api.web.dto.UserDto;
+import com.example.users.api.web.dto.UsernameAvailability;
 import com.example.users.api.web.mapper.JwtTokenMapper;
 import com.example.users.api.web.mapper.UserMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.security.Principal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @Tag(name = "Authentication controller")
 @RestController
@@ -30,26 +52,113 @@ public class AuthController {
   private final UserService userService;
   private final UserMapper userMapper;
   private final JwtTokenMapper jwtTokenMapper;
+  private final SignInRateLimiter signInRateLimiter;
+  private final UsernameAvailabilityService usernameAvailabilityService;
+  private final RefreshTokenService refreshTokenService;
+  private final JwtTokenProvider jwtTokenProvider;
+  private final TokenDenyList tokenDenyList;
+  private final TokenIntrospector tokenIntrospector;
+  private final IntrospectionRateLimiter introspectionRateLimiter;
+
+  @Value("${sign-up.async.enabled}")
+  private boolean asyncSignUp;
 
   @PostMapping("/sign-up")
   @Operation(summary = "Register user", responses = {
       @ApiResponse(responseCode = "201"),
+      @ApiResponse(responseCode = "202"),
       @ApiResponse(responseCode = "400", content = @Content)
   })
   public ResponseEntity<UserDto> signUp(@RequestBody @Valid UserCreationDto userDto) {
+    if (asyncSignUp) {
+      var reservedUser = userService.createDeferred(userMapper.toEntity(userDto));
+      var statusUri = ServletUriComponentsBuilder.fromCurrentRequest()
+          .path("/{id}")
+          .buildAndExpand(reservedUser.getId())
+          .toUri();
+      return ResponseEntity.accepted()
+          .location(statusUri)
+          .body(userMapper.toPayload(reservedUser));
+    }
     var newUser = userService.create(userMapper.toEntity(userDto));
     return new ResponseEntity<>(userMapper.toPayload(newUser), HttpStatus.CREATED);
   }
 
+  @GetMapping("/sign-up/{id}")
+  @Operation(summary = "Get registration status", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "404", content = @Content)
+  })
+  public ResponseEntity<SignUpStatus> signUpStatus(@PathVariable Long id) {
+    return ResponseEntity.of(userService.findById(id).map(userMapper::toSignUpStatus));
+  }
+
+  @GetMapping("/username-available")
+  @Operation(summary = "Check whether a username is free to register", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content)
+  })
+  public ResponseEntity<UsernameAvailability> isUsernameAvailable(@RequestParam String username) {
+    return ResponseEntity.ok(new UsernameAvailability(username,
+        usernameAvailabilityService.isAvailable(username)));
+  }
+
   @PostMapping("/sign-in")
   @Operation(summary = "Sign user in", responses = {
       @ApiResponse(responseCode = "200"),
       @ApiResponse(responseCode = "403", content = @Content),
-      @ApiResponse(responseCode = "404", content = @Content)
+      @ApiResponse(responseCode = "404", content = @Content),
+      @ApiResponse(responseCode = "409", content = @Content),
+      @ApiResponse(responseCode = "429", content = @Content)
   })
-  public ResponseEntity<JwtToken> signIn(@RequestBody @Valid Credentials credentials) {
+  public ResponseEntity<JwtToken> signIn(@RequestBody @Valid Credentials credentials,
+                                         HttpServletRequest request) {
+    signInRateLimiter.acquire(request.getRemoteAddr(), credentials.getUsername());
     return ResponseEntity.of(userService
         .signIn(credentials.getUsername(), credentials.getPassword())
-        .map(jwtTokenMapper::toPayload));
+        .map(jwt -> jwtTokenMapper.toPayload(jwt,
+            refreshTokenService.issue(credentials.getUsername()))));
+  }
+
+  @PostMapping("/refresh")
+  @Operation(summary = "Exchange a refresh token for new access and refresh tokens", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content),
+      @ApiResponse(responseCode = "403", content = @Content)
+  })
+  public ResponseEntity<JwtToken> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+    var refreshToken = refreshTokenService.rotate(request.getRefreshToken())
+        .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token supplied"));
+    return ResponseEntity.of(jwtTokenProvider
+        .toDecodedJWT(jwtTokenProvider.generateToken(refreshToken.username()))
+        .map(jwt -> jwtTokenMapper.toPayload(jwt, refreshToken)));
+  }
+
+  @PostMapping("/introspect")
+  @Operation(summary = "Check whether access tokens are active", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content),
+      @ApiResponse(responseCode = "403", content = @Content),
+      @ApiResponse(responseCode = "429", content = @Content)
+  })
+  public ResponseEntity<IntrospectionResult> introspect(
+      @RequestBody @Valid IntrospectionRequest request, Principal principal) {
+    introspectionRateLimiter.acquire(principal.getName());
+    var tokens = tokenIntrospector.introspect(request.getTokens()).stream()
+        .map(jwtTokenMapper::toIntrospection)
+        .toList();
+    return ResponseEntity.ok(new IntrospectionResult(tokens));
+  }
+
+  @PostMapping("/sign-out")
+  @Operation(summary = "Revoke the current access token and all refresh tokens",
+      responses = @ApiResponse(responseCode = "204", content = @Content))
+  public ResponseEntity<Void> signOut(Principal principal) {
+    if (principal instanceof AbstractAuthenticationToken authentication
+        && authentication.getCredentials() instanceof DecodedJWT jwt) {
+      tokenDenyList.deny(jwt.getId(), jwt.getExpiresAtAsInstant());
+    }
+    refreshTokenService.revokeAll(principal.getName());
+    return ResponseEntity.noContent().build();
   }
 }
@@ -0,0 +1,30 @@
+package com.example.users.api.web.controller;
+
+import com.example.users.api.security.JwtKeys;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "JWKS Controller")
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+  private final JwtKeys jwtKeys;
+
+  @GetMapping(path = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+  @Operation(summary = "Get public keys for verifying issued tokens",
+      responses = @ApiResponse(responseCode = "200"))
+  public ResponseEntity<String> jwks() {
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+        .body(jwtKeys.jwks());
+  }
+}
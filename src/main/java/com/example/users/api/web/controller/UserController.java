@@ -1,19 +1,34 @@
 package com.example.users.api.web.controller;
 
 import com.example.users.api.service.UserService;
+import com.example.users.api.service.changes.UserChangeFeed;
+import com.example.users.api.service.export.UserExporter;
+import com.example.users.api.service.search.UserSearchService;
+import com.example.users.api.service.stats.BirthDateBucket;
+import com.example.users.api.service.stats.BirthDateGrouping;
+import com.example.users.api.service.stats.BirthDateStatistics;
+import com.example.users.api.web.dto.UpcomingBirthdays;
+import com.example.users.api.web.dto.UserChanges;
 import com.example.users.api.web.dto.UserCreationDto;
 import com.example.users.api.web.dto.UserDto;
+import com.example.users.api.web.dto.UserSearchResult;
 import com.example.users.api.web.dto.UserUpdateDto;
 import com.example.users.api.web.mapper.UserMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
 import java.security.Principal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -31,9 +46,14 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(path = "/users", produces = MediaType.APPLICATION_JSON_VALUE)
 @RequiredArgsConstructor
 public class UserController {
+  private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
 
   private final UserService userService;
+  private final UserSearchService userSearchService;
+  private final BirthDateStatistics birthDateStatistics;
   private final UserMapper userMapper;
+  private final UserExporter userExporter;
+  private final UserChangeFeed userChangeFeed;
 
   @GetMapping(params = {"birth_date_from", "birth_date_to"})
   @Operation(summary = "Get all users by birth date range", responses = {
@@ -50,6 +70,100 @@ public class UserController {
         .toList());
   }
 
+  @GetMapping(path = "/search", params = "q")
+  @Operation(summary = "Search users by partial name, username or email", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content)
+  })
+  public ResponseEntity<UserSearchResult> search(@RequestParam(name = "q") String query,
+                                                 @RequestParam(name = "after", defaultValue = "0")
+                                                 long after,
+                                                 @RequestParam(name = "limit", defaultValue = "20")
+                                                 int limit) {
+    var users = userSearchService.search(query, after, limit);
+    var nextAfter = users.size() == limit ? users.get(users.size() - 1).getId() : null;
+    return ResponseEntity.ok(new UserSearchResult(
+        users.stream().map(userMapper::toPayload).toList(), nextAfter));
+  }
+
+  @GetMapping(path = "/suggestions", params = "prefix")
+  @Operation(summary = "Get usernames matching a name, username or email prefix", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content)
+  })
+  public ResponseEntity<List<String>> suggest(@RequestParam(name = "prefix") String prefix,
+                                              @RequestParam(name = "limit", defaultValue = "10")
+                                              int limit) {
+    return ResponseEntity.ok(userSearchService.suggestUsernames(prefix, limit));
+  }
+
+  @GetMapping("/statistics/birth-dates")
+  @Operation(summary = "Count users by birth year, birth month or age bucket", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content)
+  })
+  public ResponseEntity<List<BirthDateBucket>> countByBirthDate(
+      @RequestParam(name = "group_by") String groupBy,
+      @RequestParam(name = "age_bucket_size", defaultValue = "10") int ageBucketSize) {
+    return ResponseEntity.ok(
+        birthDateStatistics.countBy(BirthDateGrouping.of(groupBy), ageBucketSize));
+  }
+
+  @GetMapping("/upcoming-birthdays")
+  @Operation(summary = "Get users whose birthday falls within the next days", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content)
+  })
+  public ResponseEntity<UpcomingBirthdays> findUpcomingBirthdays(
+      @RequestParam(name = "days", defaultValue = "7") int days,
+      @RequestParam(name = "after_month_day", required = false) Integer afterMonthDay,
+      @RequestParam(name = "after_id", required = false) Long afterId,
+      @RequestParam(name = "limit", defaultValue = "20") int limit) {
+    var users = userService.findUpcomingBirthdays(days, afterMonthDay, afterId, limit);
+    var last = users.size() == limit ? users.get(users.size() - 1) : null;
+    return ResponseEntity.ok(new UpcomingBirthdays(
+        users.stream().map(userMapper::toPayload).toList(),
+        last == null ? null : last.getBirthMonthDay(),
+        last == null ? null : last.getId()));
+  }
+
+  @GetMapping(path = "/export", produces = {"text/csv", "application/gzip"})
+  @Operation(summary = "Export users as CSV, optionally gzipped", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content)
+  })
+  public void export(@RequestParam(name = "birth_date_from", required = false)
+                     LocalDate birthDateFrom,
+                     @RequestParam(name = "birth_date_to", required = false)
+                     LocalDate birthDateTo,
+                     @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+                     HttpServletResponse response) throws IOException {
+    var export = userExporter.prepare(birthDateFrom, birthDateTo);
+    var fileName = gzip ? "users.csv.gz" : "users.csv";
+    response.setContentType(gzip ? "application/gzip" : "text/csv;charset=UTF-8");
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+        ContentDisposition.attachment().filename(fileName).build().toString());
+    var out = gzip
+        ? new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE)
+        : new BufferedOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE);
+    try (out) {
+      export.writeTo(out);
+    }
+  }
+
+  @GetMapping("/changes")
+  @Operation(summary = "Get users created, updated or deleted since a cursor", responses = {
+      @ApiResponse(responseCode = "200"),
+      @ApiResponse(responseCode = "400", content = @Content)
+  })
+  public ResponseEntity<UserChanges> findChanges(
+      @RequestParam(name = "since", defaultValue = "") String since,
+      @RequestParam(name = "limit", defaultValue = "500") int limit) {
+    var page = userChangeFeed.changesSince(since, limit);
+    return ResponseEntity.ok(new UserChanges(
+        page.changes().stream().map(userMapper::toPayload).toList(), page.next()));
+  }
+
   @GetMapping("/{id}")
   @Operation(summary = "Get user by id", responses = {
       @ApiResponse(responseCode = "200"),
@@ -0,0 +1,16 @@
+package com.example.users.api.web.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntrospectionRequest {
+  @NotEmpty(message = "Specify tokens")
+  private List<@NotBlank(message = "Specify tokens") String> tokens;
+}
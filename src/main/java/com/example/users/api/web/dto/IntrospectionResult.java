@@ -0,0 +1,13 @@
+package com.example.users.api.web.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntrospectionResult {
+  private List<TokenIntrospection> tokens;
+}
@@ -8,4 +8,6 @@ public class JwtToken {
   private String type;
   private String algorithm;
   private String expiresAt;
+  private String refreshToken;
+  private String refreshTokenExpiresAt;
 }
@@ -0,0 +1,16 @@
+package com.example.users.api.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenRequest {
+  @NotBlank(message = "Specify refresh token")
+  @Schema(example = "string")
+  private String refreshToken;
+}
@@ -0,0 +1,9 @@
+package com.example.users.api.web.dto;
+
+import lombok.Data;
+
+// Only the status, the route is public and ids are sequential
+@Data
+public class SignUpStatus {
+  private String status;
+}
@@ -0,0 +1,15 @@
+package com.example.users.api.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenIntrospection {
+  private boolean active;
+  private String subject;
+  // Seconds since the epoch, so gateways can cache the answer until then
+  private Long expiresAt;
+}
@@ -0,0 +1,13 @@
+package com.example.users.api.web.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UpcomingBirthdays {
+  private List<UserDto> users;
+  private Integer nextAfterMonthDay;
+  private Long nextAfterId;
+}
@@ -0,0 +1,15 @@
+package com.example.users.api.web.dto;
+
+import com.example.users.api.service.changes.ChangeType;
+import java.time.Instant;
+import lombok.Data;
+
+@Data
+public class UserChangeDto {
+  private ChangeType type;
+  private Long id;
+  private UserDto user;
+  private Instant createdAt;
+  private Instant updatedAt;
+  private Instant deletedAt;
+}
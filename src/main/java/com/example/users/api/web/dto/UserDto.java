@@ -1,5 +1,7 @@
 package com.example.users.api.web.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
 import lombok.Data;
 
 @Data
@@ -9,7 +11,9 @@ public class UserDto {
   private String lastName;
   private String username;
   private String email;
-  private String birthDate;
+  // Written by UserDtoSerializer, the format is for any other ObjectMapper
+  @JsonFormat(pattern = "dd-MM-yyyy")
+  private LocalDate birthDate;
   private String address;
   private String phoneNumber;
 }
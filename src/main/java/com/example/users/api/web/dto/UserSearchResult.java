@@ -0,0 +1,12 @@
+package com.example.users.api.web.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserSearchResult {
+  private List<UserDto> users;
+  private Long nextAfter;
+}
@@ -0,0 +1,11 @@
+package com.example.users.api.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UsernameAvailability {
+  private String username;
+  private boolean available;
+}
@@ -0,0 +1,38 @@
+package com.example.users.api.web.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes dates as dd-MM-yyyy digit by digit into a char buffer handed to the generator, instead of
+ * formatting an intermediate String with a {@link DateTimeFormatter}.
+ */
+final class JsonDates {
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+  private JsonDates() {
+  }
+
+  static void writeDate(JsonGenerator generator, LocalDate date) throws IOException {
+    var year = date.getYear();
+    if (year < 0 || year > 9999) {
+      generator.writeString(DATE_FORMAT.format(date));
+      return;
+    }
+    var buffer = new char[10];
+    putTwoDigits(buffer, 0, date.getDayOfMonth());
+    buffer[2] = '-';
+    putTwoDigits(buffer, 3, date.getMonthValue());
+    buffer[5] = '-';
+    putTwoDigits(buffer, 6, year / 100);
+    putTwoDigits(buffer, 8, year % 100);
+    generator.writeString(buffer, 0, buffer.length);
+  }
+
+  private static void putTwoDigits(char[] buffer, int offset, int value) {
+    buffer[offset] = (char) ('0' + value / 10);
+    buffer[offset + 1] = (char) ('0' + value % 10);
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.users.api.web.json;
+
+import com.example.users.api.web.dto.JwtToken;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import org.springframework.boot.jackson.JsonComponent;
+
+/**
+ * Writes {@link JwtToken} without bean introspection, with field names encoded once.
+ */
+@JsonComponent
+public class JwtTokenSerializer extends StdSerializer<JwtToken> {
+  private static final SerializedString TOKEN = new SerializedString("token");
+  private static final SerializedString TYPE = new SerializedString("type");
+  private static final SerializedString ALGORITHM = new SerializedString("algorithm");
+  private static final SerializedString EXPIRES_AT = new SerializedString("expiresAt");
+  private static final SerializedString REFRESH_TOKEN = new SerializedString("refreshToken");
+  private static final SerializedString REFRESH_TOKEN_EXPIRES_AT =
+      new SerializedString("refreshTokenExpiresAt");
+
+  public JwtTokenSerializer() {
+    super(JwtToken.class);
+  }
+
+  @Override
+  public void serialize(JwtToken token, JsonGenerator generator, SerializerProvider provider)
+      throws IOException {
+    generator.writeStartObject(token);
+    writeString(generator, TOKEN, token.getToken());
+    writeString(generator, TYPE, token.getType());
+    writeString(generator, ALGORITHM, token.getAlgorithm());
+    writeString(generator, EXPIRES_AT, token.getExpiresAt());
+    writeString(generator, REFRESH_TOKEN, token.getRefreshToken());
+    writeString(generator, REFRESH_TOKEN_EXPIRES_AT, token.getRefreshTokenExpiresAt());
+    generator.writeEndObject();
+  }
+
+  private static void writeString(JsonGenerator generator, SerializedString name, String value)
+      throws IOException {
+    generator.writeFieldName(name);
+    generator.writeString(value);
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.users.api.web.json;
+
+import com.example.users.api.web.dto.UserDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import org.springframework.boot.jackson.JsonComponent;
+
+/**
+ * Writes {@link UserDto} without bean introspection, with field names encoded once. The output is
+ * the same as Jackson's own, nulls and field order included.
+ */
+@JsonComponent
+public class UserDtoSerializer extends StdSerializer<UserDto> {
+  private static final SerializedString ID = new SerializedString("id");
+  private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+  private static final SerializedString LAST_NAME = new SerializedString("lastName");
+  private static final SerializedString USERNAME = new SerializedString("username");
+  private static final SerializedString EMAIL = new SerializedString("email");
+  private static final SerializedString BIRTH_DATE = new SerializedString("birthDate");
+  private static final SerializedString ADDRESS = new SerializedString("address");
+  private static final SerializedString PHONE_NUMBER = new SerializedString("phoneNumber");
+
+  public UserDtoSerializer() {
+    super(UserDto.class);
+  }
+
+  @Override
+  public void serialize(UserDto user, JsonGenerator generator, SerializerProvider provider)
+      throws IOException {
+    generator.writeStartObject(user);
+    generator.writeFieldName(ID);
+    if (user.getId() == null) {
+      generator.writeNull();
+    } else {
+      generator.writeNumber(user.getId());
+    }
+    writeString(generator, FIRST_NAME, user.getFirstName());
+    writeString(generator, LAST_NAME, user.getLastName());
+    writeString(generator, USERNAME, user.getUsername());
+    writeString(generator, EMAIL, user.getEmail());
+    generator.writeFieldName(BIRTH_DATE);
+    if (user.getBirthDate() == null) {
+      generator.writeNull();
+    } else {
+      JsonDates.writeDate(generator, user.getBirthDate());
+    }
+    writeString(generator, ADDRESS, user.getAddress());
+    writeString(generator, PHONE_NUMBER, user.getPhoneNumber());
+    generator.writeEndObject();
+  }
+
+  private static void writeString(JsonGenerator generator, SerializedString name, String value)
+      throws IOException {
+    generator.writeFieldName(name);
+    generator.writeString(value);
+  }
+}
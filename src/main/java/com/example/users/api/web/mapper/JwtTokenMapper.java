@@ -1,12 +1,38 @@
 package com.example.users.api.web.mapper;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.users.api.security.IssuedRefreshToken;
 import com.example.users.api.web.dto.JwtToken;
+import com.example.users.api.web.dto.TokenIntrospection;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
 @Mapper
 public interface JwtTokenMapper {
-  @Mapping(target = "expiresAt", dateFormat = "dd-MM-yyyy HH:mm:ss")
+  DateTimeFormatter EXPIRATION_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm:ss")
+      .withZone(ZoneId.systemDefault());
+
+  // The shared formatter instead of the SimpleDateFormat that dateFormat creates on every call
+  @Mapping(target = "expiresAt",
+      expression = "java(EXPIRATION_FORMAT.format(jwt.getExpiresAtAsInstant()))")
+  @Mapping(target = "refreshToken", ignore = true)
+  @Mapping(target = "refreshTokenExpiresAt", ignore = true)
   JwtToken toPayload(DecodedJWT jwt);
+
+  default JwtToken toPayload(DecodedJWT jwt, IssuedRefreshToken refreshToken) {
+    var payload = toPayload(jwt);
+    payload.setRefreshToken(refreshToken.token());
+    payload.setRefreshTokenExpiresAt(EXPIRATION_FORMAT.format(refreshToken.expiresAt()));
+    return payload;
+  }
+
+  default TokenIntrospection toIntrospection(Optional<DecodedJWT> jwt) {
+    return jwt
+        .map(verified -> new TokenIntrospection(true, verified.getSubject(),
+            verified.getExpiresAtAsInstant().getEpochSecond()))
+        .orElseGet(TokenIntrospection::new);
+  }
 }
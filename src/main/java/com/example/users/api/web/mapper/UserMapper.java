@@ -1,6 +1,9 @@
 package com.example.users.api.web.mapper;
 
 import com.example.users.api.domain.User;
+import com.example.users.api.service.changes.UserChange;
+import com.example.users.api.web.dto.SignUpStatus;
+import com.example.users.api.web.dto.UserChangeDto;
 import com.example.users.api.web.dto.UserCreationDto;
 import com.example.users.api.web.dto.UserDto;
 import com.example.users.api.web.dto.UserUpdateDto;
@@ -12,13 +15,19 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 
 @Mapper
 public interface UserMapper {
-  @Mapping(target = "birthDate", source = "birthDate", dateFormat = "dd-MM-yyyy")
   UserDto toPayload(User user);
 
+  UserChangeDto toPayload(UserChange change);
+
+  SignUpStatus toSignUpStatus(User user);
+
+  @Mapping(target = "status", ignore = true)
   User toEntity(UserCreationDto userDto);
 
   @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+  @Mapping(target = "status", ignore = true)
   User partialUpdate(UserUpdateDto userDto, @MappingTarget User user);
 
+  @Mapping(target = "status", ignore = true)
   User fullUpdate(UserCreationDto userDto, @MappingTarget User user);
 }
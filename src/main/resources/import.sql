@@ -0,0 +1,16 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS users_normalized_name_trgm_idx ON users USING gin (normalized_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_normalized_username_trgm_idx ON users USING gin (normalized_username gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_normalized_email_trgm_idx ON users USING gin (normalized_email gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_deleted_idx ON users (id) WHERE deleted_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS users_bucket_idx ON users ((id & 1023));
+ALTER TABLE users ADD COLUMN IF NOT EXISTS changed_xid xid8 NOT NULL DEFAULT pg_current_xact_id();
+CREATE INDEX IF NOT EXISTS users_changed_idx ON users (changed_xid, id);
+CREATE TABLE IF NOT EXISTS user_tombstones (id bigint NOT NULL, deleted_at timestamptz NOT NULL DEFAULT now(), changed_xid xid8 NOT NULL DEFAULT pg_current_xact_id());
+CREATE INDEX IF NOT EXISTS user_tombstones_changed_idx ON user_tombstones (changed_xid, id);
+CREATE INDEX IF NOT EXISTS user_tombstones_deleted_idx ON user_tombstones (deleted_at);
+TRUNCATE user_tombstones;
+CREATE OR REPLACE FUNCTION users_stamp_change() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN new.changed_xid := pg_current_xact_id(); new.updated_at := CASE WHEN tg_op = 'INSERT' THEN coalesce(new.updated_at, now()) ELSE now() END; new.created_at := coalesce(new.created_at, new.updated_at); RETURN new; END $$;
+CREATE OR REPLACE FUNCTION users_record_tombstone() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN INSERT INTO user_tombstones (id) VALUES (old.id); RETURN NULL; END $$;
+CREATE TRIGGER users_stamp_change BEFORE INSERT OR UPDATE ON users FOR EACH ROW EXECUTE FUNCTION users_stamp_change();
+CREATE TRIGGER users_record_tombstone AFTER DELETE ON users FOR EACH ROW EXECUTE FUNCTION users_record_tombstone();
@@ -0,0 +1,36 @@
+package com.example.users.api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.service.event.ClusterInvalidation;
+import com.example.users.api.web.dto.UserDto;
+import java.sql.Connection;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+public class NativeHintsTests {
+  private final RuntimeHints hints = new RuntimeHints();
+
+  public NativeHintsTests() {
+    new NativeHints().registerHints(hints, getClass().getClassLoader());
+  }
+
+  @Test
+  public void registeringEntitiesAndJsonTypes() {
+    assertThat(RuntimeHintsPredicates.reflection().onType(User.class)).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(UserDto.class)).accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onType(ClusterInvalidation.class))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection()
+        .onType(TypeReference.of("com.auth0.jwt.impl.PayloadSerializer"))).accepts(hints);
+  }
+
+  @Test
+  public void registeringInstrumentationProxiesAndResources() {
+    assertThat(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class)).accepts(hints);
+    assertThat(RuntimeHintsPredicates.resource().forResource("import.sql")).accepts(hints);
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.users.api.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.users.api.testcontainers.ReplicatedPostgreSQLInitializer;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@ContextConfiguration(initializers = ReplicatedPostgreSQLInitializer.class)
+public class ReplicaRoutingTests {
+  private static final String IN_RECOVERY = "select pg_is_in_recovery()";
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  public void routingReadOnlyTransactionToReplica() {
+    var transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(true);
+    var jdbcTemplate = new JdbcTemplate(dataSource);
+
+    var inRecovery = transaction.execute(
+        status -> jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class));
+
+    assertThat(inRecovery).isTrue();
+  }
+
+  @Test
+  public void routingReadWriteTransactionToPrimary() {
+    var transaction = new TransactionTemplate(transactionManager);
+    var jdbcTemplate = new JdbcTemplate(dataSource);
+
+    var inRecovery = transaction.execute(
+        status -> jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class));
+
+    assertThat(inRecovery).isFalse();
+  }
+}
@@ -0,0 +1,139 @@
+package com.example.users.api.config.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.users.api.security.TokenDenyList;
+import com.example.users.api.service.event.ClusterFlushEvent;
+import com.example.users.api.service.event.ClusterInvalidation;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.testcontainers.TestcontainersInitializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = "cache-invalidation.enabled=true")
+@ActiveProfiles("test")
+@ContextConfiguration(initializers = TestcontainersInitializer.class)
+public class InvalidationTests {
+  private static final String LISTENING =
+      "select count(*) from pg_stat_activity where query = 'listen users_invalidation'";
+
+  @Autowired
+  private InvalidationListener invalidationListener;
+
+  @Autowired
+  private TokenDenyList tokenDenyList;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private FlushCounter flushCounter;
+
+  @Test
+  public void applyingNotificationsFromOtherNodes() throws Exception {
+    var expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+    var message = new InvalidationMessage("other-node",
+        ClusterInvalidation.tokenDenied("token-id", expiresAt));
+
+    var payload = objectMapper.writeValueAsString(message);
+
+    assertThat(invalidationListener.isRunning()).isTrue();
+    // Sent until applied, the listener thread may not be listening yet
+    var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (!tokenDenyList.isDenied("token-id") && System.nanoTime() - deadline < 0) {
+      jdbcTemplate.queryForList("select pg_notify(?, ?)", "users_invalidation", payload);
+      Thread.sleep(100);
+    }
+    assertThat(tokenDenyList.isDenied("token-id")).isTrue();
+  }
+
+  @Test
+  public void notifyingOnlyWhenTheWriteCommits() throws Exception {
+    var pool = dataSource.unwrap(HikariDataSource.class);
+    try (var connection = DriverManager.getConnection(pool.getJdbcUrl(), pool.getUsername(),
+        pool.getPassword())) {
+      connection.createStatement().execute("listen users_invalidation");
+      var pgConnection = connection.unwrap(PGConnection.class);
+      var event = new UserDeletedEvent(1L, "first", LocalDate.of(1990, 1, 1));
+
+      transactionTemplate.executeWithoutResult(status -> {
+        eventPublisher.publishEvent(event);
+        status.setRollbackOnly();
+      });
+
+      assertThat(pgConnection.getNotifications(500)).isEmpty();
+
+      transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(event));
+
+      assertThat(pgConnection.getNotifications(5000)).hasSize(1);
+    }
+  }
+
+  @Test
+  public void flushingAfterRestart() throws Exception {
+    // Only a connection after the first one flushes, so wait for the first one
+    var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (jdbcTemplate.queryForObject(LISTENING, Integer.class) == 0
+        && System.nanoTime() - deadline < 0) {
+      Thread.sleep(50);
+    }
+    var flushes = flushCounter.count.get();
+
+    invalidationListener.stop();
+    invalidationListener.start();
+
+    deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (flushCounter.count.get() == flushes && System.nanoTime() - deadline < 0) {
+      Thread.sleep(50);
+    }
+    assertThat(flushCounter.count.get()).isGreaterThan(flushes);
+  }
+
+  @TestConfiguration
+  static class FlushCounterConfig {
+    @Bean
+    FlushCounter flushCounter() {
+      return new FlushCounter();
+    }
+  }
+
+  static class FlushCounter {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @EventListener(ClusterFlushEvent.class)
+    void onFlush() {
+      count.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.example.users.api.config.partitioning;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.testcontainers.TestcontainersInitializer;
+import java.time.LocalDate;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+@SpringBootTest(properties = "user-partitioning.enabled=true")
+@ActiveProfiles("test")
+@ContextConfiguration(initializers = TestcontainersInitializer.class)
+public class UserPartitioningTests {
+  private static final String PARTITION_OF =
+      "select tableoid::regclass::text from users where username = ?";
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  public void cleanAll() {
+    jdbcTemplate.update("delete from users");
+  }
+
+  @Test
+  public void storingUsersInPartitionOfTheirBirthDecade() {
+    userRepository.save(user("first", LocalDate.of(1985, 10, 1)));
+    userRepository.save(user("second", LocalDate.of(1995, 1, 1)));
+
+    assertThat(jdbcTemplate.queryForObject(PARTITION_OF, String.class, "first"))
+        .isEqualTo("users_d1980");
+    assertThat(jdbcTemplate.queryForObject(PARTITION_OF, String.class, "second"))
+        .isEqualTo("users_d1990");
+  }
+
+  @Test
+  public void scanningOnlyPartitionsInRange() {
+    var plan = String.join("\n", jdbcTemplate.queryForList("""
+        explain select * from users
+        where birth_date between date '1990-01-01' and date '1995-12-31'""", String.class));
+
+    assertThat(plan).contains("users_d1990").doesNotContain("users_d1980", "users_default");
+  }
+
+  @Test
+  public void rejectingTakenUsernameInAnotherPartition() {
+    userRepository.save(user("first", LocalDate.of(1985, 10, 1)));
+
+    assertThrows(DataIntegrityViolationException.class,
+        () -> userRepository.save(user("first", LocalDate.of(1995, 1, 1))));
+  }
+
+  @Test
+  public void movingRowsOutOfDefaultPartitionWhenItsPartitionIsCreated() {
+    userRepository.save(user("first", LocalDate.of(1885, 10, 1)));
+    assertThat(jdbcTemplate.queryForObject(PARTITION_OF, String.class, "first"))
+        .isEqualTo("users_default");
+
+    new UserPartitioning(List.of(dataSource), PartitionInterval.DECADE, 1880).maintain();
+
+    assertThat(jdbcTemplate.queryForObject(PARTITION_OF, String.class, "first"))
+        .isEqualTo("users_d1880");
+    assertThat(userRepository.findByUsername("first")).isPresent();
+  }
+
+  private static User user(String username, LocalDate birthDate) {
+    var user = new User();
+    user.setUsername(username);
+    user.setEmail(username + "@mail.com");
+    user.setBirthDate(birthDate);
+    return user;
+  }
+}
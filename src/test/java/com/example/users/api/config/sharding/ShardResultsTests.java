@@ -0,0 +1,36 @@
+package com.example.users.api.config.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.users.api.domain.UserIdGenerator;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class ShardResultsTests {
+  @Test
+  public void mergingSortedResultsUpToLimit() {
+    var merged = ShardResults.merge(List.of(List.of(1, 4, 7), List.of(), List.of(2, 3, 9)),
+        Comparator.<Integer>naturalOrder(), 5);
+
+    assertThat(merged).containsExactly(1, 2, 3, 4, 7);
+  }
+
+  @Test
+  public void droppingRowsOfBucketsOwnedElsewhere() {
+    var owned = UserIdGenerator.bucketOf("owned");
+
+    var result = ShardResults.retainOwned(List.of("owned", "copied", "owned"),
+        bucket -> bucket == owned);
+
+    assertThat(result).isEqualTo(List.of("owned", "owned"));
+  }
+
+  @Test
+  public void keepingAggregatesAndDroppingMisplacedOptionals() {
+    assertThat(ShardResults.retainOwned(3, bucket -> false)).isEqualTo(3);
+    assertThat(ShardResults.retainOwned(Optional.of("copied"), bucket -> false))
+        .isEqualTo(Optional.empty());
+  }
+}
@@ -0,0 +1,35 @@
+package com.example.users.api.config.sharding;
+
+import static com.example.users.api.domain.UserIdGenerator.BUCKETS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class ShardRingTests {
+  @Test
+  public void spreadingBucketsEvenly() {
+    var ring = new ShardRing(4, 64);
+
+    var counts = new int[4];
+    IntStream.range(0, BUCKETS).forEach(bucket -> counts[ring.ownerOf(bucket)]++);
+
+    for (var count : counts) {
+      assertThat(count).isBetween(BUCKETS / 8, BUCKETS / 2);
+    }
+  }
+
+  @Test
+  public void movingOnlyBucketsTakenByAppendedShard() {
+    var before = new ShardRing(3, 64);
+    var after = new ShardRing(4, 64);
+
+    var moved = IntStream.range(0, BUCKETS)
+        .filter(bucket -> before.ownerOf(bucket) != after.ownerOf(bucket))
+        .boxed()
+        .toList();
+
+    assertThat(moved).allSatisfy(bucket -> assertThat(after.ownerOf(bucket)).isEqualTo(3));
+    assertThat(moved).hasSizeBetween(BUCKETS / 8, BUCKETS / 2);
+  }
+}
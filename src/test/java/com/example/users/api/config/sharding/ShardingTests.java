@@ -0,0 +1,149 @@
+package com.example.users.api.config.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserIdGenerator;
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.service.UserService;
+import com.example.users.api.testcontainers.ShardedPostgreSQLInitializer;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+@SpringBootTest(properties = "sharding.resharding.propagation-delay=PT0S")
+@ActiveProfiles("test")
+@ContextConfiguration(initializers = ShardedPostgreSQLInitializer.class)
+public class ShardingTests {
+  private static final String BUCKET_IDS = "select id from users where (id & 1023) = ?";
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ShardRoutingDataSource shardRoutingDataSource;
+
+  @Autowired
+  private ShardMap shardMap;
+
+  @Autowired
+  private ShardRing shardRing;
+
+  @Autowired
+  private Resharder resharder;
+
+  @AfterEach
+  public void cleanAll() {
+    shards().forEach(shard -> shard.update("delete from users"));
+  }
+
+  @Test
+  public void savingUsersOnTheShardOfTheirBucket() {
+    var users = saveUsers(30);
+
+    var ids = shards().stream()
+        .map(shard -> shard.queryForList("select id from users", Long.class))
+        .toList();
+
+    assertThat(ids.stream().filter(shardIds -> !shardIds.isEmpty())).hasSizeGreaterThan(1);
+    assertThat(ids.stream().mapToInt(List::size).sum()).isEqualTo(users.size());
+    for (var shard = 0; shard < ids.size(); shard++) {
+      for (var id : ids.get(shard)) {
+        assertThat(shardMap.shardOf(UserIdGenerator.bucketOf(id))).isEqualTo(shard);
+      }
+    }
+  }
+
+  @Test
+  public void findingUsersByIdAndUsername() {
+    var user = saveUsers(1).get(0);
+
+    assertThat(userRepository.findById(user.getId())).isPresent();
+    assertThat(userRepository.findByUsername(user.getUsername())).isPresent();
+    assertThat(userRepository.existsByUsernameIncludingDeleted(user.getUsername())).isTrue();
+  }
+
+  @Test
+  public void mergingRangeQueriesAcrossShards() {
+    var users = saveUsers(30);
+
+    var found = userRepository.findAllByBirthDateBetween(LocalDate.of(1990, 1, 1),
+        LocalDate.of(1990, 12, 31));
+
+    assertThat(found).hasSameSizeAs(users);
+    assertThat(found).isSortedAccordingTo(
+        Comparator.comparing(User::getBirthDate).thenComparing(User::getId));
+  }
+
+  @Test
+  public void rebalancingBucketsBackToTheirRingOwner() throws InterruptedException {
+    var username = "misplaced";
+    var bucket = UserIdGenerator.bucketOf(username);
+    var owner = shardRing.ownerOf(bucket);
+    var misplaced = (owner + 1) % shardRing.shards();
+    shardMap.assign(List.of(bucket), misplaced);
+    var user = userRepository.save(user(username, LocalDate.of(1990, 1, 1)));
+
+    var moved = resharder.rebalance();
+
+    assertThat(moved).isEqualTo(1);
+    assertThat(shardMap.shardOf(bucket)).isEqualTo(owner);
+    assertThat(shards().get(owner).queryForList(BUCKET_IDS, Long.class, bucket))
+        .containsExactly(user.getId());
+    assertThat(shards().get(misplaced).queryForList(BUCKET_IDS, Long.class, bucket)).isEmpty();
+    assertThat(userRepository.findById(user.getId())).isPresent();
+  }
+
+  @Test
+  public void rejectingRenameToAnotherShard() {
+    var user = saveUsers(1).get(0);
+    var shard = shardMap.shardOf(UserIdGenerator.bucketOf(user.getId()));
+    var newUsername = IntStream.iterate(0, i -> i + 1)
+        .mapToObj(i -> "renamed" + i)
+        .filter(name -> shardMap.shardOf(UserIdGenerator.bucketOf(name)) != shard)
+        .findFirst()
+        .orElseThrow();
+    var renamed = user(newUsername, user.getBirthDate());
+    renamed.setId(user.getId());
+    renamed.setPassword("password");
+
+    assertThatThrownBy(() -> userService.update(renamed))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Changing the username to %s is not supported while users are sharded"
+            .formatted(newUsername));
+    assertThat(userRepository.findByUsername(user.getUsername())).isPresent();
+  }
+
+  private List<JdbcTemplate> shards() {
+    return shardRoutingDataSource.shardDataSources().stream().map(JdbcTemplate::new).toList();
+  }
+
+  private List<User> saveUsers(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> user("user" + i, LocalDate.of(1990, 1 + i % 12, 1 + i % 28)))
+        .map(userRepository::save)
+        .toList();
+  }
+
+  private static User user(String username, LocalDate birthDate) {
+    var user = new User();
+    user.setUsername(username);
+    user.setEmail(username + "@mail.com");
+    user.setFirstName("First");
+    user.setLastName("Last");
+    user.setBirthDate(birthDate);
+    return user;
+  }
+}
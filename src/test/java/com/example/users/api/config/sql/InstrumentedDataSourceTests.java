@@ -0,0 +1,101 @@
+package com.example.users.api.config.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.users.api.config.sql.SqlInstrumentation.StatementType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InstrumentedDataSourceTests {
+  private final SqlInstrumentation sqlInstrumentation = mock(SqlInstrumentation.class);
+  private final PreparedStatement statement = mock(PreparedStatement.class);
+  private InstrumentedDataSource dataSource;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    var connection = mock(Connection.class);
+    var target = mock(DataSource.class);
+    when(target.getConnection()).thenReturn(connection);
+    when(connection.prepareStatement("update users set address = ?")).thenReturn(statement);
+    when(connection.prepareStatement("select * from users")).thenReturn(statement);
+    dataSource = new InstrumentedDataSource(target, sqlInstrumentation);
+  }
+
+  @Test
+  public void recordingUpdatedRows() throws SQLException {
+    when(statement.executeUpdate()).thenReturn(3);
+
+    try (var connection = dataSource.getConnection();
+         var prepared = connection.prepareStatement("update users set address = ?")) {
+      assertThat(prepared.executeUpdate()).isEqualTo(3);
+    }
+
+    verify(sqlInstrumentation).record(eq("update users set address = ?"), anyLong(), eq(true),
+        eq(3L));
+  }
+
+  @Test
+  public void recordingRowsReadFromResultSet() throws SQLException {
+    var resultSet = mock(ResultSet.class);
+    when(statement.executeQuery()).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true, true, false);
+
+    try (var connection = dataSource.getConnection();
+         var prepared = connection.prepareStatement("select * from users");
+         var rows = prepared.executeQuery()) {
+      while (rows.next()) {
+        assertThat(rows).isNotSameAs(resultSet);
+      }
+    }
+
+    verify(sqlInstrumentation).record(eq("select * from users"), anyLong(), eq(true), eq(-1L));
+    verify(sqlInstrumentation).recordRows("select * from users", 2);
+  }
+
+  @Test
+  public void recordingFailedStatement() throws SQLException {
+    when(statement.executeUpdate()).thenThrow(new SQLException("Deadlock detected"));
+
+    try (var connection = dataSource.getConnection();
+         var prepared = connection.prepareStatement("update users set address = ?")) {
+      assertThatThrownBy(prepared::executeUpdate).isInstanceOf(SQLException.class);
+    }
+
+    verify(sqlInstrumentation).record(eq("update users set address = ?"), anyLong(), eq(false),
+        eq(-1L));
+  }
+
+  @Test
+  public void returningProxiesFromStatementAndResultSet() throws SQLException {
+    var resultSet = mock(ResultSet.class);
+    when(statement.executeQuery()).thenReturn(resultSet);
+
+    try (var connection = dataSource.getConnection();
+         var prepared = connection.prepareStatement("select * from users");
+         var rows = prepared.executeQuery()) {
+      assertThat(prepared.getConnection()).isSameAs(connection);
+      assertThat(rows.getStatement()).isSameAs(prepared);
+      assertThat(connection).isEqualTo(connection).hasSameHashCodeAs(connection);
+      assertThat(prepared).isEqualTo(prepared).isNotEqualTo(statement);
+    }
+  }
+
+  @Test
+  public void classifyingStatements() {
+    assertThat(StatementType.of("  select * from users")).isEqualTo(StatementType.SELECT);
+    assertThat(StatementType.of("INSERT into users values (?)")).isEqualTo(StatementType.INSERT);
+    assertThat(StatementType.of("(select 1) union (select 2)")).isEqualTo(StatementType.SELECT);
+    assertThat(StatementType.of("create index")).isEqualTo(StatementType.OTHER);
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.users.api.controller;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.testcontainers.TestcontainersInitializer;
+import com.example.users.api.web.dto.UserCreationDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "sign-up.async.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ContextConfiguration(initializers = TestcontainersInitializer.class)
+public class AsyncSignUpControllerTests {
+  private final String signUp = "/auth/sign-up";
+
+  private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @AfterEach
+  public void cleanAll() {
+    userRepository.deleteAll();
+  }
+
+  @Test
+  public void signUpIsAccepted() throws Exception {
+    var user = new UserCreationDto("John", "Doe", "first", "email@mail.com", "password",
+        LocalDate.parse("2000-11-11"), "First user address", "(404) 12-34-456");
+
+    var result = mockMvc.perform(post(signUp)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(mapper.writeValueAsString(user)));
+
+    result.andExpectAll(
+        status().isAccepted(),
+        header().string("Location", matchesPattern(".*/auth/sign-up/\\d+")),
+        jsonPath("$.username").value("first"));
+  }
+
+  @Test
+  public void signUpStatusShowsOnlyStatus() throws Exception {
+    var user = new UserCreationDto("John", "Doe", "first", "email@mail.com", "password",
+        LocalDate.parse("2000-11-11"), "First user address", "(404) 12-34-456");
+    var location = mockMvc.perform(post(signUp)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(mapper.writeValueAsString(user)))
+        .andReturn()
+        .getResponse()
+        .getHeader("Location");
+
+    var result = mockMvc.perform(get(location));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.status").value(matchesPattern("PENDING|ACTIVE")),
+        jsonPath("$.username").doesNotExist(),
+        jsonPath("$.id").doesNotExist());
+  }
+
+  @Test
+  public void signUpStatusOfUnknownId() throws Exception {
+    var result = mockMvc.perform(get(signUp + "/{id}", Long.MAX_VALUE));
+
+    result.andExpect(status().isNotFound());
+  }
+}
@@ -2,22 +2,28 @@ package com.example.users.api.controller;
 
 import static java.time.format.DateTimeFormatter.ofPattern;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import com.example.users.api.repository.UserRepository;
+import com.example.users.api.security.GatewayAuthenticationFilter;
 import com.example.users.api.testcontainers.TestcontainersInitializer;
 import com.example.users.api.web.dto.Credentials;
+import com.example.users.api.web.dto.IntrospectionRequest;
+import com.example.users.api.web.dto.JwtToken;
+import com.example.users.api.web.dto.RefreshTokenRequest;
 import com.example.users.api.web.dto.UserCreationDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDate;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.jdbc.Sql;
@@ -32,17 +38,23 @@ public class AuthControllerTests {
 
   private final String signIn = "/auth/sign-in";
 
+  private final String usernameAvailable = "/auth/username-available";
+
+  private final String refresh = "/auth/refresh";
+
+  private final String introspect = "/auth/introspect";
+
   private final ObjectMapper mapper = new ObjectMapper();
 
   @Autowired
   private MockMvc mockMvc;
 
   @Autowired
-  private UserRepository userRepository;
+  private JdbcTemplate jdbcTemplate;
 
   @AfterEach
   public void cleanAll() {
-    userRepository.deleteAll();
+    jdbcTemplate.update("delete from users");
   }
 
   @Test
@@ -148,6 +160,154 @@ public class AuthControllerTests {
         jsonPath("$.message").value("Invalid username/password supplied"));
   }
 
+  @Test
+  @Sql("/users-create.sql")
+  public void refreshWithIssuedRefreshToken() throws Exception {
+    var refreshToken = signInAndGetRefreshToken();
+    var json = mapper.writeValueAsString(new RefreshTokenRequest(refreshToken));
+
+    var result = mockMvc.perform(post(refresh)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(json));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.token").value(notNullValue()),
+        jsonPath("$.refreshToken").value(notNullValue()));
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void refreshWithAlreadyRotatedRefreshToken() throws Exception {
+    var refreshToken = signInAndGetRefreshToken();
+    var json = mapper.writeValueAsString(new RefreshTokenRequest(refreshToken));
+    mockMvc.perform(post(refresh)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(json));
+
+    var result = mockMvc.perform(post(refresh)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(json));
+
+    result.andExpectAll(
+        status().isForbidden(),
+        jsonPath("$.message").value("Invalid refresh token supplied"));
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void usernameAvailableWhenNotRegistered() throws Exception {
+    var result = mockMvc.perform(get(usernameAvailable).param("username", "new_user"));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.username").value("new_user"),
+        jsonPath("$.available").value(true));
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void usernameAvailableWhenRegistered() throws Exception {
+    var result = mockMvc.perform(get(usernameAvailable).param("username", "first"));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.username").value("first"),
+        jsonPath("$.available").value(false));
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void usernameAvailableWhenSoftDeleted() throws Exception {
+    jdbcTemplate.update("update users set deleted_at = now() where username = 'first'");
+
+    var result = mockMvc.perform(get(usernameAvailable).param("username", "first"));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.available").value(false));
+  }
+
+  @Test
+  public void usernameAvailableWithInvalidUsername() throws Exception {
+    var result = mockMvc.perform(get(usernameAvailable).param("username", "a-b"));
+
+    result.andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void introspectBatchOfTokens() throws Exception {
+    var token = signIn().getToken();
+    var json = mapper.writeValueAsString(new IntrospectionRequest(List.of(token, "invalid")));
+
+    var result = mockMvc.perform(post(introspect)
+        .header(GatewayAuthenticationFilter.HEADER, "test-gateway:test-gateway-key")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(json));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.tokens[0].active").value(true),
+        jsonPath("$.tokens[0].subject").value("second"),
+        jsonPath("$.tokens[0].expiresAt").value(notNullValue()),
+        jsonPath("$.tokens[1].active").value(false),
+        jsonPath("$.tokens[1].subject").doesNotExist());
+  }
+
+  @Test
+  public void introspectWithoutTokens() throws Exception {
+    var json = mapper.writeValueAsString(new IntrospectionRequest(List.of()));
+
+    var result = mockMvc.perform(post(introspect)
+        .header(GatewayAuthenticationFilter.HEADER, "test-gateway:test-gateway-key")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(json));
+
+    result.andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void introspectWithWrongGatewayKey() throws Exception {
+    var json = mapper.writeValueAsString(new IntrospectionRequest(List.of("token")));
+
+    var result = mockMvc.perform(post(introspect)
+        .header(GatewayAuthenticationFilter.HEADER, "test-gateway:wrong-key")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(json));
+
+    result.andExpect(status().isForbidden());
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void introspectWithUserToken() throws Exception {
+    var token = signIn().getToken();
+    var json = mapper.writeValueAsString(new IntrospectionRequest(List.of(token)));
+
+    var result = mockMvc.perform(post(introspect)
+        .header("Authorization", "Bearer " + token)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(json));
+
+    result.andExpect(status().isForbidden());
+  }
+
+  private String signInAndGetRefreshToken() throws Exception {
+    return signIn().getRefreshToken();
+  }
+
+  private JwtToken signIn() throws Exception {
+    var credentials = mapper.writeValueAsString(new Credentials("second", "password"));
+    var response = mockMvc.perform(post(signIn)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(credentials))
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+    return mapper.readValue(response, JwtToken.class);
+  }
+
   private UserCreationDto getUser(String username, String password, String email,
                                   LocalDate birthDate, String firstName, String lastName,
                                   String address, String phoneNumber) {
@@ -0,0 +1,67 @@
+package com.example.users.api.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.users.api.service.username.UsernameFilter;
+import com.example.users.api.testcontainers.TestcontainersInitializer;
+import com.example.users.api.web.dto.UserCreationDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ContextConfiguration(initializers = TestcontainersInitializer.class)
+public class SignUpConflictTests {
+  private final String signUp = "/auth/sign-up";
+
+  private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  // Reports every username as absent, so sign-up skips its check like a request racing another
+  @MockBean
+  private UsernameFilter usernameFilter;
+
+  @AfterEach
+  public void cleanAll() {
+    jdbcTemplate.update("delete from users");
+  }
+
+  @Test
+  public void signUpRacingAnotherInsert() throws Exception {
+    when(usernameFilter.mightContain(any(String.class))).thenReturn(false);
+    jdbcTemplate.update("""
+        insert into users (id, username, email, password, first_name, last_name, birth_date)
+        values (1000, 'first', 'other@mail.com', 'password', 'Jane', 'Doe', '1990-01-01')""");
+    var user = new UserCreationDto("John", "Doe", "first", "email@mail.com", "password",
+        LocalDate.parse("2000-11-11"), "First user address", "(404) 12-34-456");
+
+    var result = mockMvc.perform(post(signUp)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(mapper.writeValueAsString(user)));
+
+    result.andExpectAll(
+        status().isBadRequest(),
+        jsonPath("$.message").value("Username first is already in use"));
+  }
+}
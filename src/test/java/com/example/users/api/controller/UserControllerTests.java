@@ -14,7 +14,11 @@ import com.example.users.api.testcontainers.TestcontainersInitializer;
 import com.example.users.api.web.dto.UserCreationDto;
 import com.example.users.api.web.dto.UserUpdateDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -115,6 +119,141 @@ public class UserControllerTests {
         jsonPath("$.message").value("Date %s is not later than %s".formatted(to, from)));
   }
 
+  @Test
+  @Sql("/users-create.sql")
+  public void exportByBirthDateRangeAsCsv() throws Exception {
+    var from = "1998-01-01";
+    var to = "2002-01-01";
+
+    var result = mockMvc.perform(get("/{url}/export?birth_date_from={from}&birth_date_to={to}",
+        url, from, to));
+
+    result.andExpect(status().isOk());
+    var lines = result.andReturn().getResponse().getContentAsString().lines().toList();
+    Assertions.assertThat(lines.get(0))
+        .isEqualTo("id,firstName,lastName,username,email,birthDate,address,phoneNumber");
+    Assertions.assertThat(lines.subList(1, lines.size())).hasSize(3)
+        .anySatisfy(line -> Assertions.assertThat(line).isEqualTo(
+            "2,Hugh,Rocha,second,User2@user.com,12-05-1999,Second user address,(717) 550-1675"))
+        .noneSatisfy(line -> Assertions.assertThat(line).contains("$2a$"));
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void exportAllUsersGzipped() throws Exception {
+    var result = mockMvc.perform(get("/{url}/export?gzip=true", url));
+
+    result.andExpect(status().isOk());
+    var compressed = result.andReturn().getResponse().getContentAsByteArray();
+    try (var in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      Assertions.assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines())
+          .hasSize(8);
+    }
+  }
+
+  @Test
+  public void exportWithInvalidRange() throws Exception {
+    var result = mockMvc.perform(get("/{url}/export?birth_date_from={from}&birth_date_to={to}",
+        url, "2002-01-01", "1998-01-01"));
+
+    result.andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void findChangesSinceCursor() throws Exception {
+    var first = mockMvc.perform(get("/{url}/changes", url));
+    first.andExpectAll(
+        status().isOk(),
+        jsonPath("$.changes").value(hasSize(7)),
+        jsonPath("$.changes[0].type").value("UPSERTED"),
+        jsonPath("$.changes[0].user.username").value("first"));
+    var cursor = JsonPath.read(first.andReturn().getResponse().getContentAsString(), "$.next");
+
+    mockMvc.perform(delete(selfUrl));
+    var result = mockMvc.perform(get("/{url}/changes?since={since}", url, cursor));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.changes").value(hasSize(1)),
+        jsonPath("$.changes[0].type").value("DELETED"),
+        jsonPath("$.changes[0].id").value(1));
+  }
+
+  @Test
+  public void findChangesWithInvalidCursor() throws Exception {
+    var result = mockMvc.perform(get("/{url}/changes?since={since}", url, "invalid"));
+
+    result.andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void searchByPartialName() throws Exception {
+    var result = mockMvc.perform(get("/{url}/search?q={query}", url, "ivers"));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.users", hasSize(1)),
+        jsonPath("$.users[0].username").value("third"),
+        jsonPath("$.nextAfter").doesNotExist());
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void searchWithKeysetPagination() throws Exception {
+    var result = mockMvc.perform(get("/{url}/search?q={query}&limit=2&after=1", url, "user"));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$.users", hasSize(2)),
+        jsonPath("$.users[0].id").value(2),
+        jsonPath("$.nextAfter").value(3));
+  }
+
+  @Test
+  public void searchWithTooShortQuery() throws Exception {
+    var result = mockMvc.perform(get("/{url}/search?q={query}", url, "jo"));
+
+    result.andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void suggestByLastNamePrefix() throws Exception {
+    var result = mockMvc.perform(get("/{url}/suggestions?prefix={prefix}", url, "Wi"));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$", hasSize(2)));
+  }
+
+  @Test
+  @Sql("/users-create.sql")
+  public void countByBirthYear() throws Exception {
+    var result = mockMvc.perform(get("/{url}/statistics/birth-dates?group_by=year", url));
+
+    result.andExpectAll(
+        status().isOk(),
+        jsonPath("$", hasSize(7)),
+        jsonPath("$[0].bucket").value("1974"),
+        jsonPath("$[0].count").value(1));
+  }
+
+  @Test
+  public void countByUnknownGrouping() throws Exception {
+    var result = mockMvc.perform(get("/{url}/statistics/birth-dates?group_by=week", url));
+
+    result.andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void findUpcomingBirthdaysWithTooManyDays() throws Exception {
+    var result = mockMvc.perform(get("/{url}/upcoming-birthdays?days=400", url));
+
+    result.andExpect(status().isBadRequest());
+  }
+
   @Test
   @Sql("/users-create.sql")
   public void partialUpdateSelfWithNewAddress() throws Exception {
@@ -0,0 +1,85 @@
+package com.example.users.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.users.api.domain.SigningKey;
+import com.example.users.api.repository.SigningKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RotatingJwtKeysTests {
+  private final List<SigningKey> storedKeys = new ArrayList<>();
+  private SigningKeyRepository signingKeyRepository;
+
+  @BeforeEach
+  public void setUp() {
+    signingKeyRepository = mock(SigningKeyRepository.class);
+    when(signingKeyRepository.findAllByOrderByCreatedAtDesc())
+        .thenAnswer(invocation -> storedKeys.stream()
+            .sorted((first, second) -> second.getCreatedAt().compareTo(first.getCreatedAt()))
+            .toList());
+    when(signingKeyRepository.save(any(SigningKey.class))).thenAnswer(invocation -> {
+      storedKeys.add(invocation.getArgument(0));
+      return invocation.getArgument(0);
+    });
+  }
+
+  @Test
+  public void signingAndVerifyingWithEs256() {
+    var tokenProvider = new JwtTokenProvider(createKeys("ES256"), "users-api",
+        Duration.ofMinutes(15));
+
+    var token = tokenProvider.generateToken("first");
+
+    assertThat(tokenProvider.getUsernameFromToken(token)).isEqualTo("first");
+  }
+
+  @Test
+  public void signingAndVerifyingWithRs256() {
+    var tokenProvider = new JwtTokenProvider(createKeys("RS256"), "users-api",
+        Duration.ofMinutes(15));
+
+    var token = tokenProvider.generateToken("first");
+
+    assertThat(tokenProvider.getUsernameFromToken(token)).isEqualTo("first");
+  }
+
+  @Test
+  public void verifyingAfterRotation() {
+    var keys = createKeys("ES256");
+    var tokenProvider = new JwtTokenProvider(keys, "users-api", Duration.ofMinutes(15));
+    var token = tokenProvider.generateToken("first");
+    var previousKeyId = keys.signingKeyId();
+
+    storedKeys.get(0).setCreatedAt(Instant.now().minus(Duration.ofDays(2)));
+    keys.refresh();
+
+    assertThat(keys.signingKeyId()).isNotEqualTo(previousKeyId);
+    assertThat(tokenProvider.getUsernameFromToken(token)).isEqualTo("first");
+    assertThat(keys.jwks()).contains(previousKeyId, keys.signingKeyId());
+  }
+
+  @Test
+  public void verifyingTokenFromOtherSecret() {
+    var tokenProvider = new JwtTokenProvider(createKeys("ES256"), "users-api",
+        Duration.ofMinutes(15));
+    var token = new JwtTokenProvider("B7B52", "users-api").generateToken("first");
+
+    assertThat(tokenProvider.toDecodedJWT(token)).isEmpty();
+  }
+
+  private RotatingJwtKeys createKeys(String algorithm) {
+    var keys = new RotatingJwtKeys(signingKeyRepository, algorithm, "users-api",
+        Duration.ofDays(1), Duration.ofDays(3), "B7B52", new ObjectMapper());
+    keys.refresh();
+    return keys;
+  }
+}
@@ -0,0 +1,95 @@
+package com.example.users.api.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TokenIntrospectorTests {
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+  private final VerifiedTokenCache verifiedTokenCache =
+      new VerifiedTokenCache(100, Duration.ofMinutes(1));
+  private final JwtTokenProvider tokenProvider = new JwtTokenProvider(
+      new HmacJwtKeys("B7B52", "users-api"), "users-api", Duration.ofMinutes(15),
+      verifiedTokenCache);
+  private final TokenDenyList tokenDenyList = new TokenDenyList(event -> { });
+  private final TokenIntrospector introspector = new TokenIntrospector(tokenProvider,
+      verifiedTokenCache, tokenDenyList, executor, 50, 4);
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void introspectingBatchInRequestOrder() {
+    var tokens = IntStream.range(0, 20)
+        .mapToObj(i -> i % 3 == 0 ? "not-a-token" : tokenProvider.generateToken("user" + i))
+        .toList();
+
+    var results = introspector.introspect(tokens);
+
+    assertThat(results).hasSize(20);
+    for (var i = 0; i < 20; i++) {
+      var subject = results.get(i).map(DecodedJWT::getSubject);
+      assertThat(subject).isEqualTo(i % 3 == 0 ? Optional.empty() : Optional.of("user" + i));
+    }
+  }
+
+  @Test
+  public void rejectingTokensSignedWithAnotherSecret() {
+    var foreign = new JwtTokenProvider("other", "users-api").generateToken("first");
+
+    assertThat(introspector.introspect(List.of(foreign))).containsExactly(
+        Optional.empty());
+    assertThat(verifiedTokenCache.size()).isZero();
+  }
+
+  @Test
+  public void cachingVerifiedTokens() {
+    var token = tokenProvider.generateToken("first");
+
+    introspector.introspect(List.of(token));
+
+    assertThat(verifiedTokenCache.get(token).map(DecodedJWT::getSubject)).contains("first");
+  }
+
+  @Test
+  public void reportingDeniedTokensAsInactive() {
+    var token = tokenProvider.generateToken("first");
+    var jwt = tokenProvider.toDecodedJWT(token).orElseThrow();
+
+    tokenDenyList.deny(jwt.getId(), jwt.getExpiresAtAsInstant());
+
+    assertThat(introspector.introspect(List.of(token))).containsExactly(
+        Optional.empty());
+  }
+
+  @Test
+  public void verifyingRejectedChunksInline() {
+    executor.shutdown();
+    var tokens = IntStream.range(0, 10)
+        .mapToObj(i -> tokenProvider.generateToken("user" + i))
+        .toList();
+
+    var results = introspector.introspect(tokens);
+
+    assertThat(results).allSatisfy(result -> assertThat(result).isPresent());
+  }
+
+  @Test
+  public void rejectingTooLargeBatch() {
+    var tokens = IntStream.range(0, 51).mapToObj(i -> "token").toList();
+
+    assertThatThrownBy(() -> introspector.introspect(tokens))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
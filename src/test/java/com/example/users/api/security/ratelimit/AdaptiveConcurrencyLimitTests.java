@@ -0,0 +1,78 @@
+package com.example.users.api.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimitTests {
+  private static final long MILLIS = Duration.ofMillis(1).toNanos();
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  public void rejectingAboveLimit() {
+    var limit = limit(2);
+
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.tryAcquire()).isFalse();
+    limit.release(10 * MILLIS, true);
+
+    assertThat(limit.tryAcquire()).isTrue();
+  }
+
+  @Test
+  public void growingWhileLatencyIsSteady() {
+    var limit = limit(20);
+
+    runWindows(limit, 5, 10 * MILLIS);
+
+    assertThat(limit.getLimit()).isGreaterThan(20);
+  }
+
+  @Test
+  public void shrinkingWhenLatencyGrows() {
+    var limit = limit(20);
+    runWindows(limit, 5, 10 * MILLIS);
+    var steady = limit.getLimit();
+
+    runWindows(limit, 5, 100 * MILLIS);
+
+    assertThat(limit.getLimit()).isLessThan(steady);
+  }
+
+  @Test
+  public void keepingLimitWhenBarelyUsed() {
+    var limit = limit(20);
+    for (var window = 0; window < 5; window++) {
+      for (var i = 0; i < 10; i++) {
+        limit.tryAcquire();
+        limit.release(100 * MILLIS, true);
+      }
+      clock.addAndGet(Duration.ofSeconds(1).toNanos());
+    }
+
+    assertThat(limit.getLimit()).isEqualTo(20);
+  }
+
+  private AdaptiveConcurrencyLimit limit(int initialLimit) {
+    return new AdaptiveConcurrencyLimit(initialLimit, 1, 100, Duration.ofSeconds(1), 0.5, 1.5,
+        clock::get);
+  }
+
+  // Fills the limit and completes every request with the same latency
+  private void runWindows(AdaptiveConcurrencyLimit limit, int windows, long rtt) {
+    for (var window = 0; window < windows; window++) {
+      var acquired = 0;
+      while (limit.tryAcquire()) {
+        acquired++;
+      }
+      clock.addAndGet(Duration.ofSeconds(1).toNanos());
+      for (var i = 0; i < acquired; i++) {
+        limit.release(rtt, true);
+      }
+    }
+  }
+}
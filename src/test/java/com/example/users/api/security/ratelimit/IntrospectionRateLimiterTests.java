@@ -0,0 +1,23 @@
+package com.example.users.api.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.users.api.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+public class IntrospectionRateLimiterTests {
+  private final IntrospectionRateLimiter limiter =
+      new IntrospectionRateLimiter(true, 2, 1, new SimpleMeterRegistry());
+
+  @Test
+  public void limitingEachGatewaySeparately() {
+    limiter.acquire("edge-1");
+    limiter.acquire("edge-1");
+
+    assertThatThrownBy(() -> limiter.acquire("edge-1"))
+        .isInstanceOf(TooManyRequestsException.class);
+    assertThatCode(() -> limiter.acquire("edge-2")).doesNotThrowAnyException();
+  }
+}
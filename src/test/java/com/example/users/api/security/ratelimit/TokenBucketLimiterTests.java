@@ -0,0 +1,66 @@
+package com.example.users.api.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketLimiterTests {
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  public void acquiringUpToCapacity() {
+    var limiter = new TokenBucketLimiter(3, 60, 100, 4, clock::get);
+
+    assertThat(limiter.tryAcquire("key")).isZero();
+    assertThat(limiter.tryAcquire("key")).isZero();
+    assertThat(limiter.tryAcquire("key")).isZero();
+    assertThat(limiter.tryAcquire("key")).isEqualTo(Duration.ofSeconds(1));
+  }
+
+  @Test
+  public void acquiringAfterRefill() {
+    var limiter = new TokenBucketLimiter(1, 60, 100, 4, clock::get);
+
+    assertThat(limiter.tryAcquire("key")).isZero();
+    assertThat(limiter.tryAcquire("key")).isPositive();
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+    assertThat(limiter.tryAcquire("key")).isZero();
+  }
+
+  @Test
+  public void acquiringWithDifferentKeys() {
+    var limiter = new TokenBucketLimiter(1, 60, 100, 4, clock::get);
+
+    assertThat(limiter.tryAcquire("first")).isZero();
+    assertThat(limiter.tryAcquire("second")).isZero();
+    assertThat(limiter.tryAcquire("first")).isPositive();
+  }
+
+  @Test
+  public void evictingRefilledBucketsWhenFull() {
+    var limiter = new TokenBucketLimiter(1, 60, 4, 1, clock::get);
+    for (var i = 0; i < 4; i++) {
+      limiter.tryAcquire("key" + i);
+    }
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+    limiter.tryAcquire("other");
+
+    assertThat(limiter.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void keepingLiveBucketsWhenFull() {
+    var limiter = new TokenBucketLimiter(1, 60, 2, 1, clock::get);
+    limiter.tryAcquire("target");
+    limiter.tryAcquire("other");
+
+    assertThat(limiter.tryAcquire("first")).isZero();
+    assertThat(limiter.tryAcquire("second")).isPositive();
+    assertThat(limiter.tryAcquire("target")).isPositive();
+    assertThat(limiter.size()).isEqualTo(2);
+  }
+}
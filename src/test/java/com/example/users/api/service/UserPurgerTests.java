@@ -0,0 +1,33 @@
+package com.example.users.api.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.users.api.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+public class UserPurgerTests {
+  private final UserRepository userRepository = mock(UserRepository.class);
+
+  private final UserPurger purger = new UserPurger(userRepository, 100, 3);
+
+  @Test
+  public void purgingUntilBatchIsNotFull() {
+    when(userRepository.purgeDeleted(100)).thenReturn(100, 40);
+
+    purger.purge();
+
+    verify(userRepository, times(2)).purgeDeleted(100);
+  }
+
+  @Test
+  public void purgingAtMostMaxBatchesPerRun() {
+    when(userRepository.purgeDeleted(100)).thenReturn(100);
+
+    purger.purge();
+
+    verify(userRepository, times(3)).purgeDeleted(100);
+  }
+}
@@ -3,13 +3,25 @@ package com.example.users.api.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserStatus;
+import com.example.users.api.exception.AccountNotActivatedException;
 import com.example.users.api.exception.UserAlreadyExistsException;
+import com.example.users.api.repository.DeletedUser;
 import com.example.users.api.repository.UserRepository;
 import com.example.users.api.security.JwtTokenProvider;
+import com.example.users.api.service.directory.UserDirectory;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.lookup.UserLookup;
+import com.example.users.api.service.username.UsernameFilter;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
@@ -21,6 +33,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -36,6 +52,21 @@ public class UserServiceTests {
   @Spy
   private JwtTokenProvider jwtTokenProvider = new JwtTokenProvider("B7B52", "users-api");
 
+  @Spy
+  private TaskExecutor signUpExecutor = new SyncTaskExecutor();
+
+  @Mock
+  private UsernameFilter usernameFilter;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private UserDirectory userDirectory;
+
+  @Mock
+  private UserLookup userLookup;
+
   @InjectMocks
   private UserServiceImpl userService;
 
@@ -46,6 +77,7 @@ public class UserServiceTests {
   @BeforeEach
   public void init() {
     userService.setMinAge(18);
+    lenient().when(usernameFilter.mightContain(any(String.class))).thenReturn(true);
     firstUser =
         getUser("first_username", "password", "first@mail.com",
             LocalDate.parse("2000-12-12"), "John", "Doe");
@@ -68,8 +100,9 @@ public class UserServiceTests {
   @Test
   public void creatingWithUnusedUsernameAndCorrectBirthDate() {
     var rawPassword = firstUser.getPassword();
-    when(userRepository.save(any(User.class))).thenAnswer(invoke -> invoke.getArgument(0));
-    when(userRepository.existsByUsername(any(String.class))).thenReturn(false);
+    when(userRepository.saveAndFlush(any(User.class)))
+        .thenAnswer(invoke -> invoke.getArgument(0));
+    when(userRepository.existsByUsernameIncludingDeleted(any(String.class))).thenReturn(false);
 
     var createdUser = userService.create(firstUser);
 
@@ -79,7 +112,18 @@ public class UserServiceTests {
 
   @Test
   public void creatingWithUsedUsername() {
-    when(userRepository.existsByUsername(any(String.class))).thenReturn(true);
+    when(userRepository.existsByUsernameIncludingDeleted(any(String.class))).thenReturn(true);
+
+    assertThatThrownBy(() -> userService.create(firstUser))
+        .isInstanceOf(UserAlreadyExistsException.class)
+        .hasMessage("Username %s is already in use".formatted(firstUser.getUsername()));
+  }
+
+  @Test
+  public void creatingWithUsernameTakenConcurrently() {
+    when(userRepository.existsByUsernameIncludingDeleted(any(String.class))).thenReturn(false);
+    when(userRepository.saveAndFlush(any(User.class)))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"));
 
     assertThatThrownBy(() -> userService.create(firstUser))
         .isInstanceOf(UserAlreadyExistsException.class)
@@ -88,7 +132,7 @@ public class UserServiceTests {
 
   @Test
   public void creatingWithNotAllowedBirthDate() {
-    when(userRepository.existsByUsername(any(String.class))).thenReturn(false);
+    when(userRepository.existsByUsernameIncludingDeleted(any(String.class))).thenReturn(false);
     firstUser.setBirthDate(LocalDate.now());
 
     assertThatThrownBy(() -> userService.create(firstUser))
@@ -96,6 +140,42 @@ public class UserServiceTests {
         .hasMessage("Min age must be equal or higher than 18");
   }
 
+  @Test
+  public void creatingDeferredWithUnusedUsername() {
+    var rawPassword = firstUser.getPassword();
+    when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invoke -> {
+      User user = invoke.getArgument(0);
+      user.setId(1L);
+      return user;
+    });
+
+    var reservedUser = userService.createDeferred(firstUser);
+
+    assertThat(reservedUser.getStatus()).isEqualTo(UserStatus.PENDING);
+    assertThat(reservedUser.getPassword()).isNull();
+    verify(userRepository).activate(eq(1L),
+        argThat(password -> passwordEncoder.matches(rawPassword, password)));
+  }
+
+  @Test
+  public void creatingDeferredWithUsedUsername() {
+    when(userRepository.saveAndFlush(any(User.class)))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+    assertThatThrownBy(() -> userService.createDeferred(firstUser))
+        .isInstanceOf(UserAlreadyExistsException.class)
+        .hasMessage("Username %s is already in use".formatted(firstUser.getUsername()));
+  }
+
+  @Test
+  public void signingInWithNotActivatedAccount() {
+    firstUser.setStatus(UserStatus.PENDING);
+    when(userRepository.findByUsername(firstUser.getUsername())).thenReturn(Optional.of(firstUser));
+
+    assertThatThrownBy(() -> userService.signIn(firstUser.getUsername(), firstUser.getPassword()))
+        .isInstanceOf(AccountNotActivatedException.class);
+  }
+
   @Test
   public void signingInWithMatchingCredentials() {
     var rawPassword = firstUser.getPassword();
@@ -119,6 +199,26 @@ public class UserServiceTests {
         .hasMessage("Invalid username/password supplied");
   }
 
+  @Test
+  public void signingInWithUsernameAbsentFromFilter() {
+    when(usernameFilter.mightContain(firstUser.getUsername())).thenReturn(false);
+
+    assertThatThrownBy(() -> userService.signIn(firstUser.getUsername(), firstUser.getPassword()))
+        .isInstanceOf(BadCredentialsException.class);
+    verify(userRepository, never()).findByUsername(any(String.class));
+  }
+
+  @Test
+  public void creatingWithUsernameAbsentFromFilter() {
+    when(usernameFilter.mightContain(firstUser.getUsername())).thenReturn(false);
+    when(userRepository.saveAndFlush(any(User.class))).thenAnswer(invoke -> invoke.getArgument(0));
+
+    var createdUser = userService.create(firstUser);
+
+    assertThat(createdUser).isNotNull();
+    verify(userRepository, never()).existsByUsernameIncludingDeleted(any(String.class));
+  }
+
   @Test
   public void updatingWithNewUsernameUnused() {
     var rawPassword = firstUser.getPassword();
@@ -206,4 +306,106 @@ public class UserServiceTests {
 
     assertThat(users).hasSize(0);
   }
+
+  @Test
+  public void findingUpcomingBirthdaysWithinTheYear() {
+    when(userRepository.findAllByBirthMonthDayBetween(1205, 1215, 0, 0L, 10))
+        .thenReturn(List.of(firstUser, secondUser));
+
+    var users = userService.findUpcomingBirthdays(LocalDate.parse("2023-12-05"), 10, null, null,
+        10);
+
+    assertThat(users).containsExactly(firstUser, secondUser);
+  }
+
+  @Test
+  public void findingUpcomingBirthdaysAcrossTheNewYear() {
+    when(userRepository.findAllByBirthMonthDayBetween(1225, 1231, 0, 0L, 2))
+        .thenReturn(List.of(firstUser));
+    when(userRepository.findAllByBirthMonthDayBetween(101, 104, 0, 0L, 1))
+        .thenReturn(List.of(secondUser));
+
+    var users = userService.findUpcomingBirthdays(LocalDate.parse("2023-12-25"), 10, null, null,
+        2);
+
+    assertThat(users).containsExactly(firstUser, secondUser);
+  }
+
+  @Test
+  public void findingUpcomingBirthdaysAfterCursorInTheNewYear() {
+    when(userRepository.findAllByBirthMonthDayBetween(101, 104, 102, 7L, 2))
+        .thenReturn(List.of(secondUser));
+
+    var users = userService.findUpcomingBirthdays(LocalDate.parse("2023-12-25"), 10, 102, 7L, 2);
+
+    assertThat(users).containsExactly(secondUser);
+    verify(userRepository, never())
+        .findAllByBirthMonthDayBetween(eq(1225), eq(1231), any(Integer.class), any(Long.class),
+            any(Integer.class));
+  }
+
+  @Test
+  public void findingUpcomingBirthdaysEndingOnFebruary28InCommonYear() {
+    when(userRepository.findAllByBirthMonthDayBetween(220, 229, 0, 0L, 10))
+        .thenReturn(List.of(firstUser));
+
+    var users = userService.findUpcomingBirthdays(LocalDate.parse("2023-02-20"), 8, null, null,
+        10);
+
+    assertThat(users).containsExactly(firstUser);
+  }
+
+  @Test
+  public void findingByIdMissingFromDirectory() {
+    firstUser.setId(1L);
+    when(userDirectory.isLoaded()).thenReturn(true);
+    when(userDirectory.findById(1L)).thenReturn(Optional.empty());
+    when(userLookup.findById(1L)).thenReturn(Optional.of(firstUser));
+
+    assertThat(userService.findById(1L)).contains(firstUser);
+  }
+
+  @Test
+  public void deletingByUsernameWithSingleStatement() {
+    when(userRepository.deleteByUsername("first_username"))
+        .thenReturn(List.of(deletedUser(1L, "first_username", LocalDate.parse("2000-12-12"))));
+
+    userService.deleteByUsername("first_username");
+
+    verify(eventPublisher).publishEvent(
+        new UserDeletedEvent(1L, "first_username", LocalDate.parse("2000-12-12")));
+    verify(userRepository, never()).softDeleteByUsername(any(String.class));
+  }
+
+  @Test
+  public void softDeletingByUsername() {
+    userService.setSoftDelete(true);
+    when(userRepository.softDeleteByUsername("first_username"))
+        .thenReturn(List.of(deletedUser(1L, "first_username", LocalDate.parse("2000-12-12"))));
+
+    userService.deleteByUsername("first_username");
+
+    verify(eventPublisher).publishEvent(
+        new UserDeletedEvent(1L, "first_username", LocalDate.parse("2000-12-12")));
+    verify(userRepository, never()).deleteByUsername(any(String.class));
+  }
+
+  private static DeletedUser deletedUser(Long id, String username, LocalDate birthDate) {
+    return new DeletedUser() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getUsername() {
+        return username;
+      }
+
+      @Override
+      public LocalDate getBirthDate() {
+        return birthDate;
+      }
+    };
+  }
 }
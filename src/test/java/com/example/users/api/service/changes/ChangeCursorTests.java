@@ -0,0 +1,35 @@
+package com.example.users.api.service.changes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.example.users.api.service.changes.ChangeCursor.Position;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ChangeCursorTests {
+  @Test
+  public void startingFromScratchWithEmptyCursor() {
+    var cursor = ChangeCursor.parse("", 2);
+
+    assertThat(cursor.positions()).containsExactly(new Position(0, 0), new Position(0, 0));
+  }
+
+  @Test
+  public void parsingFormattedCursor() {
+    var cursor = new ChangeCursor(List.of(new Position(742, 1025), new Position(9, 3)));
+
+    assertThat(ChangeCursor.parse(cursor.toString(), 2)).isEqualTo(cursor);
+  }
+
+  @Test
+  public void rejectingMalformedCursor() {
+    assertThrows(IllegalArgumentException.class, () -> ChangeCursor.parse("742", 1));
+    assertThrows(IllegalArgumentException.class, () -> ChangeCursor.parse("742.-1", 1));
+  }
+
+  @Test
+  public void rejectingCursorOfAnotherNumberOfShards() {
+    assertThrows(IllegalArgumentException.class, () -> ChangeCursor.parse("742.1025", 2));
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.users.api.service.directory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.domain.UserStatus;
+import java.time.LocalDate;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+public class UserColumnsTests {
+  private static final LocalDate BIRTH_DATE = LocalDate.parse("2000-01-01");
+
+  private final UserColumns columns = new UserColumns(0);
+
+  @Test
+  public void findingById() {
+    columns.put(user(1, BIRTH_DATE));
+
+    var found = columns.findById(1).orElseThrow();
+
+    assertThat(found.getUsername()).isEqualTo("user1");
+    assertThat(found.getFirstName()).isEqualTo("John");
+    assertThat(found.getLastName()).isNull();
+    assertThat(found.getBirthDate()).isEqualTo(BIRTH_DATE);
+    assertThat(found.getStatus()).isEqualTo(UserStatus.ACTIVE);
+    assertThat(found.getPassword()).isNull();
+    assertThat(columns.findById(2)).isEmpty();
+  }
+
+  @Test
+  public void findingByBirthDateInOrder() {
+    columns.put(user(3, BIRTH_DATE));
+    columns.put(user(2, BIRTH_DATE.plusDays(1)));
+    columns.buildIndex();
+    columns.put(user(1, BIRTH_DATE));
+    columns.put(user(4, BIRTH_DATE.plusDays(5)));
+
+    assertThat(columns.findAllByBirthDateBetween(BIRTH_DATE, BIRTH_DATE.plusDays(1)))
+        .extracting(User::getId)
+        .containsExactly(1L, 3L, 2L);
+  }
+
+  @Test
+  public void updatingAndRemoving() {
+    columns.buildIndex();
+    columns.put(user(1, BIRTH_DATE));
+    columns.put(user(2, BIRTH_DATE));
+    var moved = user(1, BIRTH_DATE.plusYears(1));
+    moved.setEmail("moved@mail.com");
+    columns.put(moved);
+    columns.remove(2);
+
+    assertThat(columns.size()).isEqualTo(1);
+    assertThat(columns.findById(1).orElseThrow().getEmail()).isEqualTo("moved@mail.com");
+    assertThat(columns.findAllByBirthDateBetween(BIRTH_DATE, BIRTH_DATE)).isEmpty();
+    assertThat(columns.findAllByBirthDateBetween(BIRTH_DATE, BIRTH_DATE.plusYears(1)))
+        .extracting(User::getId)
+        .containsExactly(1L);
+  }
+
+  @Test
+  public void reusingSlotsAndCompactingStrings() {
+    columns.buildIndex();
+    for (var round = 0; round < 50; round++) {
+      LongStream.rangeClosed(1, 1000).forEach(id -> columns.put(user(id, BIRTH_DATE)));
+      LongStream.rangeClosed(1, 1000).filter(id -> id % 2 == 0).forEach(columns::remove);
+    }
+
+    assertThat(columns.size()).isEqualTo(500);
+    assertThat(columns.findById(999).orElseThrow().getUsername()).isEqualTo("user999");
+    assertThat(columns.findById(1000)).isEmpty();
+    assertThat(columns.findAllByBirthDateBetween(BIRTH_DATE, BIRTH_DATE)).hasSize(500);
+  }
+
+  private static User user(long id, LocalDate birthDate) {
+    var user = new User();
+    user.setId(id);
+    user.setUsername("user" + id);
+    user.setEmail("user" + id + "@mail.com");
+    user.setFirstName("John");
+    user.setBirthDate(birthDate);
+    user.setPassword("password");
+    return user;
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.users.api.service.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTests {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final CountDownLatch loading = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Test
+  public void sharingConcurrentLoad() throws Exception {
+    var singleFlight = new SingleFlight<String, String>("test", Duration.ofSeconds(5),
+        meterRegistry);
+
+    var leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", this::load));
+    loading.await();
+    var follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", this::load));
+    awaitCoalesced();
+    release.countDown();
+
+    assertThat(leader.get()).isEqualTo("value");
+    assertThat(follower.get()).isEqualTo("value");
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  public void sharingLoadFailure() throws Exception {
+    var singleFlight = new SingleFlight<String, String>("test", Duration.ofSeconds(5),
+        meterRegistry);
+
+    var leader = CompletableFuture.runAsync(() -> singleFlight.execute("key", () -> {
+      load();
+      throw new IllegalStateException("failed");
+    }));
+    loading.await();
+    var follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", this::load));
+    awaitCoalesced();
+    release.countDown();
+
+    assertThatThrownBy(leader::join).hasCauseInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(follower::join).hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(singleFlight.execute("key", () -> "next")).isEqualTo("next");
+  }
+
+  @Test
+  public void loadingOnTimeout() throws Exception {
+    var singleFlight = new SingleFlight<String, String>("test", Duration.ofMillis(10),
+        meterRegistry);
+
+    var leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", this::load));
+    loading.await();
+
+    assertThat(singleFlight.execute("key", () -> "own")).isEqualTo("own");
+    release.countDown();
+    assertThat(leader.get()).isEqualTo("value");
+    assertThat(meterRegistry.get("single.flight.calls").tag("outcome", "timed-out").counter()
+        .count()).isEqualTo(1);
+  }
+
+  private String load() {
+    loads.incrementAndGet();
+    loading.countDown();
+    try {
+      release.await();
+    } catch (InterruptedException exception) {
+      throw new IllegalStateException(exception);
+    }
+    return "value";
+  }
+
+  private void awaitCoalesced() throws InterruptedException {
+    var coalesced = meterRegistry.get("single.flight.calls").tag("outcome", "coalesced").counter();
+    while (coalesced.count() == 0) {
+      Thread.sleep(1);
+    }
+  }
+}
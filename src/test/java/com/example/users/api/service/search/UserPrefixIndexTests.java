@@ -0,0 +1,49 @@
+package com.example.users.api.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.example.users.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class UserPrefixIndexTests {
+  private UserPrefixIndex index;
+
+  @BeforeEach
+  public void setUp() {
+    index = new UserPrefixIndex(mock(UserRepository.class),
+        mock(PlatformTransactionManager.class), true);
+    index.put("first", "John", "Doe", "User1@user.com");
+    index.put("second", "Hugh", "Rocha", "User2@user.com");
+    index.put("third", "Spencer", "Rivers", "User3@user.com");
+  }
+
+  @Test
+  public void findingByUsernamePrefix() {
+    assertThat(index.findUsernames("fir", 10)).containsExactly("first");
+  }
+
+  @Test
+  public void findingByFirstAndLastNamePrefix() {
+    assertThat(index.findUsernames("john d", 10)).containsExactly("first");
+    assertThat(index.findUsernames("r", 10)).containsExactlyInAnyOrder("second", "third");
+  }
+
+  @Test
+  public void findingByEmailPrefix() {
+    assertThat(index.findUsernames("user", 10)).containsExactly("first", "second", "third");
+    assertThat(index.findUsernames("user", 2)).hasSize(2);
+  }
+
+  @Test
+  public void findingAfterUpdateAndRemove() {
+    index.put("first", "Jane", "Doe", "User1@user.com");
+    index.remove("second");
+
+    assertThat(index.findUsernames("john", 10)).isEmpty();
+    assertThat(index.findUsernames("jane", 10)).containsExactly("first");
+    assertThat(index.findUsernames("hugh", 10)).isEmpty();
+  }
+}
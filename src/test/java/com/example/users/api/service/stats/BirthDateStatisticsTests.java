@@ -0,0 +1,107 @@
+package com.example.users.api.service.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.users.api.domain.User;
+import com.example.users.api.repository.BirthDateCount;
+import com.example.users.api.repository.UserRepository;
+import com.example.users.api.service.event.ClusterInvalidation;
+import com.example.users.api.service.event.ClusterInvalidationEvent;
+import com.example.users.api.service.event.UserCreatedEvent;
+import com.example.users.api.service.event.UserDeletedEvent;
+import com.example.users.api.service.event.UserUpdatedEvent;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BirthDateStatisticsTests {
+  private final LocalDate today = LocalDate.now();
+  private UserRepository userRepository;
+
+  @BeforeEach
+  public void setUp() {
+    userRepository = mock(UserRepository.class);
+    when(userRepository.countAllGroupByBirthDate()).thenReturn(List.of(
+        count(today.minusYears(20), 2),
+        count(today.minusYears(25).withDayOfYear(1), 1),
+        count(today.minusYears(40), 3)));
+  }
+
+  @Test
+  public void countingByAgeFromDatabase() {
+    var statistics = new BirthDateStatistics(userRepository, false, 18);
+
+    assertThat(statistics.countBy(BirthDateGrouping.AGE, 10)).containsExactly(
+        new BirthDateBucket("18-27", 3),
+        new BirthDateBucket("38-47", 3));
+  }
+
+  @Test
+  public void countingByYearFromCounters() {
+    var statistics = new BirthDateStatistics(userRepository, true, 18);
+    statistics.resync();
+    var created = user(today.minusYears(40));
+    statistics.onCreated(new UserCreatedEvent(created));
+    statistics.onUpdated(new UserUpdatedEvent("first", today.minusYears(20), created));
+    statistics.onDeleted(new UserDeletedEvent(2L, "second", today.minusYears(25).withDayOfYear(1)));
+
+    assertThat(statistics.countBy(BirthDateGrouping.YEAR, 10)).containsExactly(
+        new BirthDateBucket(String.valueOf(today.getYear() - 40), 5),
+        new BirthDateBucket(String.valueOf(today.getYear() - 20), 1));
+  }
+
+  @Test
+  public void applyingClusterInvalidations() {
+    var statistics = new BirthDateStatistics(userRepository, true, 18);
+    statistics.resync();
+    var created = user(today.minusYears(40));
+    statistics.onClusterInvalidation(new ClusterInvalidationEvent(List.of(
+        ClusterInvalidation.of(new UserCreatedEvent(created)),
+        ClusterInvalidation.of(new UserUpdatedEvent("first", today.minusYears(20), created)),
+        ClusterInvalidation.tokenDenied("token", Instant.now().plusSeconds(60)))));
+
+    assertThat(statistics.countBy(BirthDateGrouping.YEAR, 10)).containsExactly(
+        new BirthDateBucket(String.valueOf(today.getYear() - 40), 5),
+        new BirthDateBucket(String.valueOf(today.getYear() - 25), 1),
+        new BirthDateBucket(String.valueOf(today.getYear() - 20), 1));
+
+    statistics.onClusterFlush();
+
+    assertThat(statistics.countBy(BirthDateGrouping.YEAR, 10)).containsExactly(
+        new BirthDateBucket(String.valueOf(today.getYear() - 40), 3),
+        new BirthDateBucket(String.valueOf(today.getYear() - 25), 1),
+        new BirthDateBucket(String.valueOf(today.getYear() - 20), 2));
+  }
+
+  @Test
+  public void parsingUnknownGrouping() {
+    assertThatThrownBy(() -> BirthDateGrouping.of("week"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static BirthDateCount count(LocalDate birthDate, long count) {
+    return new BirthDateCount() {
+      @Override
+      public LocalDate getBirthDate() {
+        return birthDate;
+      }
+
+      @Override
+      public long getCount() {
+        return count;
+      }
+    };
+  }
+
+  private static User user(LocalDate birthDate) {
+    var user = new User();
+    user.setUsername("created");
+    user.setBirthDate(birthDate);
+    return user;
+  }
+}
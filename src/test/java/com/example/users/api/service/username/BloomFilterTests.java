@@ -0,0 +1,38 @@
+package com.example.users.api.service.username;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTests {
+
+  @Test
+  public void containingAllInsertedValues() {
+    var filter = new BloomFilter(1_000, 0.01);
+    IntStream.range(0, 1_000).forEach(i -> filter.put("user_" + i));
+
+    assertThat(IntStream.range(0, 1_000).allMatch(i -> filter.mightContain("user_" + i))).isTrue();
+  }
+
+  @Test
+  public void keepingFalsePositiveRateBounded() {
+    var filter = new BloomFilter(10_000, 0.01);
+    IntStream.range(0, 10_000).forEach(i -> filter.put("user_" + i));
+
+    var falsePositives = IntStream.range(0, 100_000)
+        .filter(i -> filter.mightContain("absent_" + i))
+        .count();
+
+    assertThat(falsePositives).isLessThan(2_000);
+  }
+
+  @Test
+  public void estimatingElementCount() {
+    var filter = new BloomFilter(10_000, 0.01);
+    IntStream.range(0, 5_000).forEach(i -> filter.put("user_" + i));
+
+    assertThat(filter.approximateElementCount()).isBetween(4_750L, 5_250L);
+    assertThat(filter.fillRatio()).isBetween(0.0, 0.5);
+  }
+}
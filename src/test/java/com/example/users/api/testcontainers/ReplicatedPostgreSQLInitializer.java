@@ -0,0 +1,69 @@
+package com.example.users.api.testcontainers;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+
+/**
+ * Starts a primary and a hot standby fed by streaming replication from it.
+ */
+public class ReplicatedPostgreSQLInitializer implements
+    ApplicationContextInitializer<ConfigurableApplicationContext> {
+  private static final String PRIMARY_ALIAS = "primary";
+  private static final String REPLICATION_USER = "replicator";
+  private static final String REPLICATION_PASSWORD = "replicator";
+
+  @Override
+  public void initialize(ConfigurableApplicationContext ctx) {
+    var dockerImage = Binder.get(ctx.getEnvironment())
+        .bind("testcontainers." + PostgreSQLConfig.NAME, PostgreSQLConfig.class)
+        .get()
+        .getDockerImage();
+    var network = Network.newNetwork();
+
+    var primary = new PostgreSQLContainer<>(dockerImage)
+        .withNetwork(network)
+        .withNetworkAliases(PRIMARY_ALIAS)
+        .withCommand("postgres", "-c", "wal_level=replica", "-c", "max_wal_senders=4",
+            "-c", "fsync=off")
+        .withCopyToContainer(Transferable.of("""
+            #!/bin/sh
+            set -e
+            psql -v ON_ERROR_STOP=1 -U "$POSTGRES_USER" -d "$POSTGRES_DB" \\
+                -c "CREATE ROLE %s WITH REPLICATION LOGIN PASSWORD '%s'"
+            echo "host replication %s all scram-sha-256" >> "$PGDATA/pg_hba.conf"
+            """.formatted(REPLICATION_USER, REPLICATION_PASSWORD, REPLICATION_USER), 0755),
+            "/docker-entrypoint-initdb.d/replication.sh");
+    primary.start();
+
+    var replica = new GenericContainer<>(dockerImage)
+        .withNetwork(network)
+        .withEnv("PGPASSWORD", REPLICATION_PASSWORD)
+        .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+        .withCommand("sh", "-c", """
+            until pg_basebackup -h %s -U %s -D /tmp/replica -R -X stream; do sleep 1; done
+            exec postgres -D /tmp/replica
+            """.formatted(PRIMARY_ALIAS, REPLICATION_USER))
+        .withExposedPorts(PostgreSQLContainer.POSTGRESQL_PORT)
+        .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1)
+            .withStartupTimeout(Duration.ofMinutes(2)));
+    replica.start();
+
+    TestPropertyValues.of(
+        "spring.datasource.url=" + primary.getJdbcUrl(),
+        "spring.datasource.username=" + primary.getUsername(),
+        "spring.datasource.password=" + primary.getPassword(),
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.urls=" + "jdbc:postgresql://%s:%d/%s".formatted(replica.getHost(),
+            replica.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+            primary.getDatabaseName())
+    ).applyTo(ctx.getEnvironment());
+  }
+}
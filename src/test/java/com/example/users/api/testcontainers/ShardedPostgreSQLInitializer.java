@@ -0,0 +1,42 @@
+package com.example.users.api.testcontainers;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.lifecycle.Startables;
+
+/**
+ * Starts three independent databases used as shards, the first one also being the default
+ * datasource.
+ */
+public class ShardedPostgreSQLInitializer implements
+    ApplicationContextInitializer<ConfigurableApplicationContext> {
+  private static final int SHARDS = 3;
+
+  @Override
+  public void initialize(ConfigurableApplicationContext ctx) {
+    var config = Binder.get(ctx.getEnvironment())
+        .bind("testcontainers." + PostgreSQLConfig.NAME, PostgreSQLConfig.class)
+        .get();
+    var shards = Stream.generate(config::forContainer)
+        .limit(SHARDS)
+        .map(container -> (PostgreSQLContainer<?>) container)
+        .toList();
+    Startables.deepStart(shards).join();
+
+    var first = shards.get(0);
+    TestPropertyValues.of(
+        "spring.datasource.url=" + first.getJdbcUrl(),
+        "spring.datasource.username=" + first.getUsername(),
+        "spring.datasource.password=" + first.getPassword(),
+        "sharding.enabled=true",
+        "sharding.urls=" + shards.stream()
+            .map(PostgreSQLContainer::getJdbcUrl)
+            .collect(Collectors.joining(","))
+    ).applyTo(ctx.getEnvironment());
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.users.api.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import com.example.users.api.exception.InvalidCredentialsException;
+import com.example.users.api.exception.TooManyRequestsException;
+import com.example.users.api.exception.UserAlreadyExistsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+public class UserApiControllerAdviceTests {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final UserApiControllerAdvice advice = new UserApiControllerAdvice(objectMapper);
+
+  @Test
+  public void expectedErrorsHaveNoStackTrace() {
+    assertThat(new InvalidCredentialsException("Invalid").getStackTrace()).isEmpty();
+    assertThat(new UserAlreadyExistsException("In use").getStackTrace()).isEmpty();
+    assertThat(new TooManyRequestsException("Too many", Duration.ZERO).getStackTrace()).isEmpty();
+  }
+
+  @Test
+  public void precomputedBodyMatchesSerializedResponse() throws Exception {
+    var response = advice.handleForbidden(new InvalidCredentialsException("Invalid \"password\""));
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    var body = objectMapper.readTree(response.getBody());
+    assertThat(body.get("message").asText()).isEqualTo("Invalid \"password\"");
+    assertThat(body.get("timeStamp").asText()).matches("\\d{2}:\\d{2}:\\d{2}");
+  }
+
+  @Test
+  public void reusingPrecomputedBodyWithinSecond() {
+    // Retried in case both calls straddle a second boundary
+    for (var attempt = 0; attempt < 3; attempt++) {
+      var epochSecond = System.currentTimeMillis() / 1000;
+      var first = advice.handleTooManyRequests(tooManyRequests()).getBody();
+      var second = advice.handleTooManyRequests(tooManyRequests()).getBody();
+      if (System.currentTimeMillis() / 1000 == epochSecond) {
+        assertThat(second).isSameAs(first);
+        return;
+      }
+    }
+    fail("Could not call twice within a second");
+  }
+
+  @Test
+  public void settingRetryAfterForTooManyRequests() {
+    var response = advice.handleTooManyRequests(tooManyRequests());
+
+    assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+  }
+
+  private static TooManyRequestsException tooManyRequests() {
+    return new TooManyRequestsException("Too many sign-in attempts", Duration.ofSeconds(30));
+  }
+}
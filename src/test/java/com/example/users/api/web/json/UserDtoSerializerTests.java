@@ -0,0 +1,66 @@
+package com.example.users.api.web.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.users.api.web.dto.JwtToken;
+import com.example.users.api.web.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+public class UserDtoSerializerTests {
+  private final ObjectMapper defaultMapper = new ObjectMapper().findAndRegisterModules();
+  private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+      .registerModule(new SimpleModule()
+          .addSerializer(new UserDtoSerializer())
+          .addSerializer(new JwtTokenSerializer()));
+
+  @Test
+  public void writingTheSameJsonAsJackson() throws Exception {
+    var user = new UserDto();
+    user.setId(42L);
+    user.setFirstName("Zo\u00eb \"the\" Doe");
+    user.setLastName("Smith\n");
+    user.setUsername("zoe");
+    user.setEmail("zoe@example.com");
+    user.setBirthDate(LocalDate.parse("1990-03-07"));
+    user.setPhoneNumber("+1 555 0100");
+
+    var json = mapper.writeValueAsString(user);
+
+    assertThat(json).isEqualTo(defaultMapper.writeValueAsString(user));
+    assertThat(json).contains("\"birthDate\":\"07-03-1990\"", "\"address\":null");
+  }
+
+  @Test
+  public void writingEmptyUser() throws Exception {
+    var user = new UserDto();
+
+    assertThat(mapper.writeValueAsString(user)).isEqualTo(defaultMapper.writeValueAsString(user));
+  }
+
+  @Test
+  public void readingWrittenUserBack() throws Exception {
+    var user = new UserDto();
+    user.setId(1L);
+    user.setBirthDate(LocalDate.parse("0987-12-31"));
+
+    var json = mapper.writeValueAsString(user);
+
+    assertThat(json).contains("\"birthDate\":\"31-12-0987\"");
+    assertThat(mapper.readValue(json, UserDto.class)).isEqualTo(user);
+  }
+
+  @Test
+  public void writingTheSameTokenAsJackson() throws Exception {
+    var token = new JwtToken();
+    token.setToken("header.payload.signature");
+    token.setType("JWT");
+    token.setAlgorithm("HS256");
+    token.setExpiresAt("01-01-2030 10:00:00");
+
+    assertThat(mapper.writeValueAsString(token))
+        .isEqualTo(defaultMapper.writeValueAsString(token));
+  }
+}